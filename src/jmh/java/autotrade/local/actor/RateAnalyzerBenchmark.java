@@ -0,0 +1,134 @@
+package autotrade.local.actor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.TickClock;
+
+/**
+ * RateAnalyzerの1tickあたりの処理(追加、期間参照、異常判定)を計測する
+ * 20分間のRateを保持した状態から始め、ticksPerSecondでRateの密度を変える
+ *
+ * 期間参照は同一tick内でキャッシュされるため、時刻を1ms単位で交互に切り替えて毎回キャッシュを外す
+ * 切り替え自体の処理時間はclockOnlyで計測する
+ * RateAnalyzerはAutoTradePropertiesを参照するため、application.ymlのあるディレクトリで実行すること
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RateAnalyzerBenchmark {
+
+    private static final Duration WINDOW = Duration.ofMinutes(20);
+    private static final int WINDOW_MINUTES = 20;
+    private static final int INITIAL_BID = 150000;
+
+    @Param({"5", "20", "100"})
+    private int ticksPerSecond;
+
+    private TickClock clock;
+    private RateAnalyzer analyzer;
+    private long intervalNanos;
+    private LocalDateTime timestamp;
+    private int bid;
+    // 設定値の最小スプレッド(異常判定でスプレッド拡大としない)
+    private int spread;
+    // 価格変動を事前に用意し、計測中に乱数を使わない
+    private int[] moves;
+    private int moveIndex;
+    // 期間参照で切り替える時刻
+    private LocalDateTime[] queryTimes;
+    private int queryIndex;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        moves = new int[4096];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = random.nextInt(7) - 3;
+        }
+        intervalNanos = 1_000_000_000L / ticksPerSecond;
+        timestamp = LocalDateTime.of(2024, 1, 10, 10, 0);
+        bid = INITIAL_BID;
+        spread = CurrencyPair.USDJPY.getMinSpread();
+        clock = TickClock.fixed(timestamp);
+        analyzer = new RateAnalyzer(clock);
+        analyzer.registerWindow(WINDOW);
+        for (long i = 0; i < WINDOW.getSeconds() * ticksPerSecond; i++) {
+            add();
+        }
+        queryTimes = new LocalDateTime[] {clock.now(), clock.now().plusNanos(1_000_000)};
+    }
+
+    @Benchmark
+    public boolean add() {
+        timestamp = timestamp.plusNanos(intervalNanos);
+        bid += moves[moveIndex++ & (moves.length - 1)];
+        clock.set(timestamp);
+        analyzer.add(Rate.builder().pair(CurrencyPair.USDJPY).ask(bid + spread).bid(bid).timestamp(timestamp).build());
+        return analyzer.isMoved();
+    }
+
+    @Benchmark
+    public long clockOnly() {
+        return nextQueryTime();
+    }
+
+    @Benchmark
+    public int maxWithin() {
+        nextQueryTime();
+        return analyzer.maxWithin(WINDOW);
+    }
+
+    @Benchmark
+    public int minWithin() {
+        nextQueryTime();
+        return analyzer.minWithin(WINDOW);
+    }
+
+    @Benchmark
+    public int rangeWithin() {
+        nextQueryTime();
+        return analyzer.rangeWithin(WINDOW);
+    }
+
+    @Benchmark
+    public int averageWithin() {
+        nextQueryTime();
+        return analyzer.averageWithin(WINDOW);
+    }
+
+    @Benchmark
+    public boolean isUpwardWithin() {
+        nextQueryTime();
+        return analyzer.isUpwardWithin(WINDOW);
+    }
+
+    @Benchmark
+    public long passCountWithin() {
+        nextQueryTime();
+        return analyzer.passCountWithin(analyzer.getMiddleThreshold(), WINDOW_MINUTES);
+    }
+
+    @Benchmark
+    public boolean isDoubtful() {
+        return analyzer.isDoubtful();
+    }
+
+    private long nextQueryTime() {
+        clock.set(queryTimes[queryIndex++ & 1]);
+        return clock.millis();
+    }
+}
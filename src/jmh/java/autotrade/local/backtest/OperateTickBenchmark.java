@@ -0,0 +1,107 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import autotrade.local.autotrader.AutoTrader;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.TickClock;
+
+/**
+ * Rate受信から取引判断までの処理時間(operateTick()1回分)を計測する
+ * 画面はScriptedWebDriverで再現するため、Chrome、Redis、S3は使わない
+ * SampleTimeでパーセンタイル、Throughputで1秒あたりの判断回数を出力する
+ *
+ * Rateは固定seedのランダムウォーク(200msごと)とし、末尾に達した後は折り返して逆順に辿る(価格を飛ばさない)
+ * スプレッドは設定値の最小スプレッドとし、スプレッド拡大として判断が省かれないようにする
+ * AutoTraderはトライアルごとに1つだけ生成し、例外が発生した場合はバックテストと同様に初期処理からやり直す
+ * スリープ等でAutoTraderが時刻を進めた場合は、その時刻から次のRateを配信する
+ * AutoTraderの設定値を参照するため、application.ymlのあるディレクトリで実行すること
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OperateTickBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 10, 10, 0);
+    private static final long INTERVAL_MILLIS = 200;
+
+    @Param({"autotrade.local.autotrader.impl.AutoTrader19th", "autotrade.local.autotrader.impl.AutoTrader16th"})
+    private String implementation;
+
+    private int[] bids;
+    private int spread;
+    private SimulatedBroker broker;
+    private AutoTrader trader;
+    private TickClock clock;
+    private long epochMillis;
+    private long count;
+
+    @Setup(Level.Trial)
+    public void open() {
+        AutoTradeUtils.offline();
+        // 一定件数ごとに傾きが変わるランダムウォーク
+        Random random = new Random(1);
+        spread = CurrencyPair.USDJPY.getMinSpread();
+        bids = new int[1 << 16];
+        int bid = 150000;
+        int trend = 0;
+        for (int i = 0; i < bids.length; i++) {
+            if (i % 3000 == 0) {
+                trend = random.nextInt(3) - 1;
+            }
+            bid += random.nextInt(7) - 3 + trend;
+            bids[i] = bid;
+        }
+
+        broker = new SimulatedBroker(1_000_000_000);
+        epochMillis = AutoTradeUtils.toEpochMilli(START);
+        broker.update(CurrencyPair.USDJPY, bids[0] + spread, bids[0], epochMillis);
+        broker.update(CurrencyPair.EURUSD, 110000 + CurrencyPair.EURUSD.getMinSpread(), 110000, epochMillis);
+        trader = Backtest.newTrader(implementation);
+        trader.simulate(() -> new ScriptedWebDriver(broker), ScriptedWebDriverWrapper::new, START);
+        clock = trader.getClock();
+        trader.open();
+        count = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        trader.close();
+    }
+
+    @Benchmark
+    public void operateTick() {
+        int bid = nextBid();
+        epochMillis = Math.max(epochMillis, clock.millis()) + INTERVAL_MILLIS;
+        broker.update(CurrencyPair.USDJPY, bid + spread, bid, epochMillis);
+        clock.set(AutoTradeUtils.toLocalDateTime(epochMillis));
+        try {
+            trader.operateTick();
+        } catch (Exception e) {
+            trader.close();
+            trader.open();
+        }
+    }
+
+    /**
+     * 0, 1, ..., n - 1, n - 1, ..., 0, 0, 1, ...の順に辿る
+     */
+    private int nextBid() {
+        int position = (int) (count++ % (2L * bids.length));
+        return bids[position < bids.length ? position : 2 * bids.length - 1 - position];
+    }
+}
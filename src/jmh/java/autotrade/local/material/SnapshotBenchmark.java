@@ -0,0 +1,81 @@
+package autotrade.local.material;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Snapshotの導出値(損益、ポジション状態、上限判定)を計測する
+ * positionで買い、売りのLotの組み合わせを変える(NONE、ASK_SIDE、SAME)
+ * isAskLtLimit等はCurrencyPairの設定値を参照するため、application.ymlのあるディレクトリで実行すること
+ * スプレッドは設定値の最小スプレッドとする
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SnapshotBenchmark {
+
+    @Param({"0:0", "5:2", "3:3"})
+    private String position;
+
+    private Snapshot snapshot;
+
+    @Setup
+    public void setup() {
+        String[] lots = position.split(":");
+        snapshot = Snapshot.builder()
+                .pair(CurrencyPair.USDJPY)
+                .margin(1_000_000)
+                .effectiveMargin(990_000)
+                .rate(Rate.builder().pair(CurrencyPair.USDJPY).ask(150000 + CurrencyPair.USDJPY.getMinSpread()).bid(150000).timestamp(LocalDateTime.of(2024, 1, 10, 10, 0)).build())
+                .askLot(Integer.parseInt(lots[0]))
+                .bidLot(Integer.parseInt(lots[1]))
+                .askAverageRate(149980)
+                .bidAverageRate(150020)
+                .todaysProfit(1200)
+                .build();
+    }
+
+    @Benchmark
+    public PositionStatus getStatus() {
+        return snapshot.getStatus();
+    }
+
+    @Benchmark
+    public int getTotalProfit() {
+        return snapshot.getTotalProfit();
+    }
+
+    @Benchmark
+    public boolean isAskLtLimit() {
+        return snapshot.isAskLtLimit();
+    }
+
+    /**
+     * 1回の判断で参照する導出値をまとめて取得する
+     */
+    @Benchmark
+    public void derived(Blackhole blackhole) {
+        blackhole.consume(snapshot.getAskProfit());
+        blackhole.consume(snapshot.getBidProfit());
+        blackhole.consume(snapshot.getPositionProfit());
+        blackhole.consume(snapshot.isPositionNone());
+        blackhole.consume(snapshot.isPositionAskSide());
+        blackhole.consume(snapshot.isPositionSame());
+        blackhole.consume(snapshot.hasOneSide());
+        blackhole.consume(snapshot.hasBothSide());
+        blackhole.consume(snapshot.isAskLtLimit());
+        blackhole.consume(snapshot.isBidLtLimit());
+        blackhole.consume(snapshot.isSpreadWiden());
+        blackhole.consume(snapshot.getMoreLot());
+    }
+}
@@ -0,0 +1,124 @@
+package autotrade.local.actor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import autotrade.local.material.Bar;
+import autotrade.local.material.BarResolution;
+import autotrade.local.utility.AutoTradeUtils;
+
+/**
+ * TickBufferに追加されたRateから解像度別の足を組み立てる
+ * 期間集計は期間内に収まる足を粗い解像度から使い、端数は細かい解像度、最後はTickBufferの区間参照で補う
+ * そのため、集計結果はTickBufferを全件走査した場合と一致する
+ */
+class BarAggregator {
+
+    private TickBuffer ticks;
+    private BarSeries[] seriesList;
+
+    // 直近の集計結果
+    private int max;
+    private int min;
+    private long count;
+
+    BarAggregator(TickBuffer ticks, long retentionMillis) {
+        this.ticks = ticks;
+        BarResolution[] resolutions = BarResolution.values();
+        seriesList = new BarSeries[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            seriesList[i] = new BarSeries(resolutions[i], retentionMillis);
+        }
+    }
+
+    void add(long seq) {
+        for (BarSeries series : seriesList) {
+            series.add(ticks.ask(seq), ticks.bid(seq), ticks.epochMillis(seq));
+        }
+    }
+
+    void evictBefore(long fromMillis) {
+        for (BarSeries series : seriesList) {
+            series.evictBefore(fromMillis);
+        }
+    }
+
+    /**
+     * [fromMillis, toMillis]の最大値、最小値、件数を集計する
+     */
+    void aggregate(long fromMillis, long toMillis) {
+        max = Integer.MIN_VALUE;
+        min = Integer.MAX_VALUE;
+        count = 0;
+        if (ticks.isEmpty()) {
+            return;
+        }
+        // 破棄済みのRateを含む足を使わないよう、保持している最古のRateで切り上げる
+        aggregate(seriesList.length - 1, Math.max(fromMillis, ticks.epochMillis(ticks.headSeq())), toMillis);
+    }
+
+    private void aggregate(int level, long fromMillis, long toMillis) {
+        if (fromMillis > toMillis) {
+            return;
+        }
+        if (level < 0) {
+            aggregateTicks(fromMillis, toMillis);
+            return;
+        }
+        BarSeries series = seriesList[level];
+        long resolutionMillis = series.resolutionMillis();
+        long fullFrom = Math.floorDiv(fromMillis + resolutionMillis - 1, resolutionMillis) * resolutionMillis;
+        long fullTo = Math.floorDiv(toMillis + 1, resolutionMillis) * resolutionMillis;
+        if (fullFrom >= fullTo) {
+            aggregate(level - 1, fromMillis, toMillis);
+            return;
+        }
+        aggregate(level - 1, fromMillis, fullFrom - 1);
+        for (long seq = series.lowerBound(fullFrom); seq < series.tailSeq() && series.startMillis(seq) < fullTo; seq++) {
+            max = Math.max(max, series.high(seq));
+            min = Math.min(min, series.low(seq));
+            count += series.count(seq);
+        }
+        aggregate(level - 1, fullTo, toMillis);
+    }
+
+    private void aggregateTicks(long fromMillis, long toMillis) {
+        long fromSeq = ticks.lowerBound(fromMillis);
+        long toSeq = ticks.upperBound(toMillis);
+        if (fromSeq >= toSeq) {
+            return;
+        }
+        max = Math.max(max, ticks.maxAsk(fromSeq, toSeq));
+        min = Math.min(min, ticks.minBid(fromSeq, toSeq));
+        count += toSeq - fromSeq;
+    }
+
+    int max() {
+        return count == 0 ? Integer.MAX_VALUE : max;
+    }
+
+    int min() {
+        return count == 0 ? Integer.MIN_VALUE : min;
+    }
+
+    /**
+     * @return 開始時刻がfromMillis以上の足
+     */
+    List<Bar> getBars(BarResolution resolution, long fromMillis) {
+        BarSeries series = seriesList[resolution.ordinal()];
+        List<Bar> bars = new ArrayList<>();
+        for (long seq = series.lowerBound(fromMillis); seq < series.tailSeq(); seq++) {
+            bars.add(Bar.builder()
+                    .resolution(resolution)
+                    .timestamp(AutoTradeUtils.toLocalDateTime(series.startMillis(seq)))
+                    .open(series.open(seq))
+                    .high(series.high(seq))
+                    .low(series.low(seq))
+                    .close(series.close(seq))
+                    .average((int) ((double) series.middleSum(seq) / series.count(seq)))
+                    .count(series.count(seq))
+                    .build());
+        }
+        return bars;
+    }
+}
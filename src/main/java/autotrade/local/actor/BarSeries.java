@@ -0,0 +1,148 @@
+package autotrade.local.actor;
+
+import autotrade.local.material.BarResolution;
+import lombok.Getter;
+
+/**
+ * 解像度別の足をプリミティブ配列で保持するリングバッファ
+ * 足の開始時刻は解像度で切り捨てたepochミリ秒とする
+ */
+class BarSeries {
+
+    @Getter
+    private BarResolution resolution;
+    private long resolutionMillis;
+
+    private long[] startMillis;
+    private int[] opens;
+    private int[] highs;
+    private int[] lows;
+    private int[] closes;
+    private int[] counts;
+    private long[] middleSums;
+    private int mask;
+    private long headSeq;
+    private long tailSeq;
+
+    BarSeries(BarResolution resolution, long retentionMillis) {
+        this.resolution = resolution;
+        this.resolutionMillis = resolution.toMillis();
+        int capacity = Integer.highestOneBit((int) (retentionMillis / resolutionMillis) + 1) << 1;
+        startMillis = new long[capacity];
+        opens = new int[capacity];
+        highs = new int[capacity];
+        lows = new int[capacity];
+        closes = new int[capacity];
+        counts = new int[capacity];
+        middleSums = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    void add(int ask, int bid, long millis) {
+        int middle = (ask + bid) / 2;
+        long barStart = millis - Math.floorMod(millis, resolutionMillis);
+        if (!isEmpty() && startMillis(tailSeq - 1) == barStart) {
+            int index = index(tailSeq - 1);
+            highs[index] = Math.max(highs[index], ask);
+            lows[index] = Math.min(lows[index], bid);
+            closes[index] = middle;
+            counts[index]++;
+            middleSums[index] += middle;
+            return;
+        }
+        if (size() == capacity()) {
+            headSeq++;
+        }
+        int index = index(tailSeq);
+        startMillis[index] = barStart;
+        opens[index] = middle;
+        highs[index] = ask;
+        lows[index] = bid;
+        closes[index] = middle;
+        counts[index] = 1;
+        middleSums[index] = middle;
+        tailSeq++;
+    }
+
+    /**
+     * fromMillisより前に終了している足を破棄する
+     */
+    void evictBefore(long fromMillis) {
+        while (headSeq < tailSeq && startMillis(headSeq) + resolutionMillis <= fromMillis) {
+            headSeq++;
+        }
+    }
+
+    /**
+     * @return 開始時刻がmillis以上となる最初のseq、存在しない場合はtailSeq
+     */
+    long lowerBound(long millis) {
+        long low = headSeq;
+        long high = tailSeq;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (startMillis(middle) < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    long resolutionMillis() {
+        return resolutionMillis;
+    }
+
+    long startMillis(long seq) {
+        return startMillis[index(seq)];
+    }
+
+    int open(long seq) {
+        return opens[index(seq)];
+    }
+
+    int high(long seq) {
+        return highs[index(seq)];
+    }
+
+    int low(long seq) {
+        return lows[index(seq)];
+    }
+
+    int close(long seq) {
+        return closes[index(seq)];
+    }
+
+    int count(long seq) {
+        return counts[index(seq)];
+    }
+
+    long middleSum(long seq) {
+        return middleSums[index(seq)];
+    }
+
+    long headSeq() {
+        return headSeq;
+    }
+
+    long tailSeq() {
+        return tailSeq;
+    }
+
+    int size() {
+        return (int) (tailSeq - headSeq);
+    }
+
+    boolean isEmpty() {
+        return headSeq == tailSeq;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+}
@@ -5,44 +5,51 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.TickClock;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class IndicatorManager {
 
+    private TickClock clock;
     private LocalDateTime nextIndicator;
-    private LocalDateTime prevIndicator;
+    private long nextIndicatorMillis;
+    private long prevIndicatorMillis;
 
     @Getter
     private List<LocalDateTime> indicators;
 
-    public IndicatorManager() {
+    public IndicatorManager(TickClock clock) {
+        this.clock = clock;
         this.indicators = new ArrayList<>();
-        this.nextIndicator = LocalDateTime.now();
-        this.prevIndicator = LocalDateTime.now();
+        this.nextIndicator = clock.now();
+        this.nextIndicatorMillis = clock.millis();
+        this.prevIndicatorMillis = clock.millis();
     }
 
-    private LocalDateTime getNextIndicate() {
-        if (LocalDateTime.now().isAfter(nextIndicator)) {
-            prevIndicator = nextIndicator;
+    private long getNextIndicateMillis() {
+        if (clock.millis() > nextIndicatorMillis) {
+            prevIndicatorMillis = nextIndicatorMillis;
             nextIndicator = indicators.stream()
-                    .filter(LocalDateTime.now()::isBefore)
+                    .filter(clock.now()::isBefore)
                     .min(LocalDateTime::compareTo)
-                    .orElse(LocalDateTime.now().plusDays(2));
+                    .orElse(clock.now().plusDays(2));
+            nextIndicatorMillis = AutoTradeUtils.toEpochMilli(nextIndicator);
             log.info("next indicator will come at {}", nextIndicator);
         }
-        return nextIndicator;
+        return nextIndicatorMillis;
     }
 
     public boolean isNextIndicatorWithin(Duration duration) {
-        if (Duration.between(LocalDateTime.now(), getNextIndicate()).toMillis() < duration.toMillis()) {
+        if (getNextIndicateMillis() - clock.millis() < duration.toMillis()) {
             return true;
         }
         return false;
     }
     public boolean isPrevIndicatorWithin(Duration duration) {
-        if (Duration.between(prevIndicator, LocalDateTime.now()).toMillis() < duration.toMillis()) {
+        if (clock.millis() - prevIndicatorMillis < duration.toMillis()) {
             return true;
         }
         return false;
@@ -0,0 +1,63 @@
+package autotrade.local.actor;
+
+import java.text.MessageFormat;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Snapshot;
+import lombok.Getter;
+
+/**
+ * 注文数量欄に事前入力したLotと、入力した時点のポジションを保持する
+ * ポジションが変わらない間は入力済みのLotで発注でき、注文時は発注ボタンのクリックのみで済む
+ * 発注時のLotが入力済みのLotと異なる場合は不一致として記録する
+ */
+@Getter
+public class LotStager {
+
+    private boolean staged;
+    private CurrencyPair pair;
+    private int askLot;
+    private int bidLot;
+    private int lot;
+
+    private long hitCount;
+    private long mismatchCount;
+
+    /**
+     * @return Snapshotのポジションが入力時点から変わっている場合true
+     */
+    public boolean needsStaging(Snapshot snapshot) {
+        return !staged
+                || pair != snapshot.getPair()
+                || askLot != snapshot.getAskLot()
+                || bidLot != snapshot.getBidLot();
+    }
+
+    public void stage(Snapshot snapshot, int lot) {
+        this.staged = true;
+        this.pair = snapshot.getPair();
+        this.askLot = snapshot.getAskLot();
+        this.bidLot = snapshot.getBidLot();
+        this.lot = lot;
+    }
+
+    /**
+     * @return 発注するLotが入力済みの場合true
+     */
+    public boolean use(int lot) {
+        if (staged && this.lot == lot) {
+            hitCount++;
+            return true;
+        }
+        mismatchCount++;
+        return false;
+    }
+
+    public void invalidate() {
+        staged = false;
+    }
+
+    public String getReport() {
+        return MessageFormat.format("staged {0} lot {1} hit {2} mismatch {3}", staged, lot, hitCount, mismatchCount);
+    }
+}
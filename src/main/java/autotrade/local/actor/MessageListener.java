@@ -48,6 +48,19 @@ public class MessageListener extends RedisPubSubAdapter<String, String> {
         CLOUDLOAD,
         RESETSAME,
         CLOSERECOVERYMANAGER,
+        SCRIPTSNAPSHOT,
+        FEEDMODE,
+        LOCATORREPORT,
+        RATELISTINTERVAL,
+        MARKETDATA,
+        ORDERLATENCY,
+        TICKREPORT,
+        TICKINTERVAL,
+        SNAPSHOTREADER,
+        SNAPSHOTREADERREPORT,
+        LOTSTAGING,
+        LOTSTAGINGREPORT,
+        TICKJOURNAL,
     }
 
     private Map<ReservedMessage, Consumer<String[]>> commandMap;
@@ -1,6 +1,7 @@
 package autotrade.local.actor;
 
 import autotrade.local.utility.AutoTradeProperties;
+import autotrade.local.utility.AutoTradeUtils;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.pubsub.RedisPubSubListener;
@@ -11,7 +12,13 @@ public class Messenger {
     private static final String KEY_REDIS_URI = "aws.elasticache.redis.uri";
     private static final String KEY_REDIS_CHANNEL = "aws.elasticache.redis.channel";
 
+    /**
+     * @return 接続、オフラインの場合はnull(メッセージを受信しない)
+     */
     public static StatefulRedisPubSubConnection<String, String> createPubSubConnection(RedisPubSubListener<String, String> listener) {
+        if (AutoTradeUtils.isOffline()) {
+            return null;
+        }
         RedisClient redisClient = RedisClient.create(AutoTradeProperties.get(KEY_REDIS_URI));
         StatefulRedisPubSubConnection<String, String> pubSubConnection = redisClient.connectPubSub();
         pubSubConnection.addListener(listener);
@@ -20,6 +27,9 @@ public class Messenger {
     }
 
     public static void set(String key, String value) {
+        if (AutoTradeUtils.isOffline()) {
+            return;
+        }
         RedisClient redisClient = RedisClient.create(AutoTradeProperties.get(KEY_REDIS_URI));
         try (StatefulRedisConnection<String, String> connection = redisClient.connect()) {
             connection.sync().set(key, value);
@@ -28,6 +38,9 @@ public class Messenger {
         }
     }
     public static String get(String key) {
+        if (AutoTradeUtils.isOffline()) {
+            return null;
+        }
         RedisClient redisClient = RedisClient.create(AutoTradeProperties.get(KEY_REDIS_URI));
         try (StatefulRedisConnection<String, String> connection = redisClient.connect()) {
             return connection.sync().get(key);
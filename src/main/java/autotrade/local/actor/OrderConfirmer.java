@@ -0,0 +1,79 @@
+package autotrade.local.actor;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.OrderType;
+import autotrade.local.utility.LatencyRecorder;
+import autotrade.local.utility.TickClock;
+
+/**
+ * 注文、決済が画面に反映されたことを確認する
+ * 確認条件は対象のLot項目のみを参照するものとし、反映直後に検知できるよう短い間隔から徐々に間隔を広げて確認する
+ * 注文種別ごとに反映までの時間を記録する
+ * 待機はTickClockで行うため、リプレイ(TickClock.Mode.FIXED)では待機した分だけ時刻が進む
+ */
+public class OrderConfirmer {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long MIN_INTERVAL_MILLIS = 10;
+    private static final long MAX_INTERVAL_MILLIS = 200;
+
+    private Duration timeout;
+    private TickClock clock;
+    private Map<OrderType, LatencyRecorder> latencies;
+
+    public OrderConfirmer(TickClock clock) {
+        this(DEFAULT_TIMEOUT, clock);
+    }
+
+    public OrderConfirmer(Duration timeout, TickClock clock) {
+        this.timeout = timeout;
+        this.clock = clock;
+        this.latencies = Stream.of(OrderType.values()).collect(Collectors.toMap(t -> t, t -> new LatencyRecorder()));
+    }
+
+    /**
+     * confirmedを満たすまで待機する
+     *
+     * @throws ApplicationException タイムアウトした場合
+     */
+    public void confirm(OrderType orderType, BooleanSupplier confirmed) {
+        long started = nanoTime();
+        long deadline = started + timeout.toNanos();
+        long intervalMillis = MIN_INTERVAL_MILLIS;
+        while (!confirmed.getAsBoolean()) {
+            if (nanoTime() > deadline) {
+                throw new ApplicationException(MessageFormat.format("verify is failed. {0}", orderType));
+            }
+            clock.sleep(Duration.ofMillis(intervalMillis));
+            intervalMillis = Math.min(intervalMillis * 2, MAX_INTERVAL_MILLIS);
+        }
+        latencies.get(orderType).record(nanoTime() - started);
+    }
+
+    private long nanoTime() {
+        if (clock.getMode() == TickClock.Mode.FIXED) {
+            return clock.millis() * 1_000_000;
+        }
+        return System.nanoTime();
+    }
+
+    public LatencyRecorder getLatency(OrderType orderType) {
+        return latencies.get(orderType);
+    }
+
+    /**
+     * @return 注文種別ごとの反映までの時間
+     */
+    public String getLatencyReport() {
+        return Stream.of(OrderType.values())
+                .map(t -> t + " " + latencies.get(t))
+                .collect(Collectors.joining("\n"));
+    }
+}
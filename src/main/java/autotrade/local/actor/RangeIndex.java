@@ -0,0 +1,65 @@
+package autotrade.local.actor;
+
+import java.util.Arrays;
+
+/**
+ * TickBufferのスロット単位でask最大値、bid最小値を保持するセグメント木
+ * 更新、区間参照ともにO(log n)で処理できる
+ */
+class RangeIndex {
+
+    private int capacity;
+    // [capacity, 2 * capacity)が葉、iの子は2 * iと2 * i + 1
+    private int[] maxAsks;
+    private int[] minBids;
+
+    RangeIndex(int capacity) {
+        this.capacity = capacity;
+        maxAsks = new int[capacity * 2];
+        minBids = new int[capacity * 2];
+        Arrays.fill(maxAsks, Integer.MIN_VALUE);
+        Arrays.fill(minBids, Integer.MAX_VALUE);
+    }
+
+    void update(int index, int ask, int bid) {
+        int node = index + capacity;
+        maxAsks[node] = ask;
+        minBids[node] = bid;
+        for (node >>= 1; node > 0; node >>= 1) {
+            maxAsks[node] = Math.max(maxAsks[2 * node], maxAsks[2 * node + 1]);
+            minBids[node] = Math.min(minBids[2 * node], minBids[2 * node + 1]);
+        }
+    }
+
+    /**
+     * @return [from, to)のask最大値、範囲が空の場合はInteger.MIN_VALUE
+     */
+    int maxAsk(int from, int to) {
+        int max = Integer.MIN_VALUE;
+        for (int left = from + capacity, right = to + capacity; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                max = Math.max(max, maxAsks[left++]);
+            }
+            if ((right & 1) == 1) {
+                max = Math.max(max, maxAsks[--right]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return [from, to)のbid最小値、範囲が空の場合はInteger.MAX_VALUE
+     */
+    int minBid(int from, int to) {
+        int min = Integer.MAX_VALUE;
+        for (int left = from + capacity, right = to + capacity; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                min = Math.min(min, minBids[left++]);
+            }
+            if ((right & 1) == 1) {
+                min = Math.min(min, minBids[--right]);
+            }
+        }
+        return min;
+    }
+}
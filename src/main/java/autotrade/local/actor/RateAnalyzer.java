@@ -6,14 +6,18 @@ import java.time.LocalDateTime;
 import java.time.temporal.Temporal;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.Map;
 import java.util.stream.IntStream;
 
+import autotrade.local.material.Bar;
+import autotrade.local.material.BarResolution;
 import autotrade.local.material.Rate;
 import autotrade.local.utility.AutoTradeProperties;
+import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.TickClock;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,7 +25,19 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 public class RateAnalyzer {
 
-    private List<Rate> rates;
+    private static final long RETENTION_MILLIS = Duration.ofMinutes(20).toMillis();
+    private static final long MINUTE_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    @Getter(AccessLevel.NONE)
+    private TickClock clock;
+    @Getter(AccessLevel.NONE)
+    private TickBuffer ticks;
+    @Getter(AccessLevel.NONE)
+    private BarAggregator bars;
+    @Getter(AccessLevel.NONE)
+    private Map<Duration, RateWindow> rateWindows;
+    @Getter(AccessLevel.NONE)
+    private List<RateWindow> rateWindowList;
     private int askThreshold;
     private int bidThreshold;
     private int middleThreshold;
@@ -39,9 +55,20 @@ public class RateAnalyzer {
     private int noMoveCounter;
     private ArrayDeque<Rate> latestRateQueue;
     private ArrayDeque<Rate> diffRateQueue;
-
-    public RateAnalyzer() {
-        rates = new ArrayList<>();
+    // 期間別参照のキャッシュ、add()または時刻の変化で無効化する
+    @Getter(AccessLevel.NONE)
+    private long queryVersion;
+    @Getter(AccessLevel.NONE)
+    private long queryMillis;
+    private long queryHitCount;
+    private long queryMissCount;
+
+    public RateAnalyzer(TickClock clock) {
+        this.clock = clock;
+        ticks = new TickBuffer();
+        bars = new BarAggregator(ticks, RETENTION_MILLIS);
+        rateWindows = new HashMap<>();
+        rateWindowList = new ArrayList<>();
         askThreshold = Integer.MAX_VALUE;
         bidThreshold = Integer.MIN_VALUE;
         highWaterMark = Rate.builder().ask(Integer.MIN_VALUE).build();
@@ -49,6 +76,7 @@ public class RateAnalyzer {
         countertradingRatio = AutoTradeProperties.getBigDecimal("autotrade.rateAnalizer.countertrading.ratio");
         thresholdMinutes = AutoTradeProperties.getInt("autotrade.rateAnalizer.threshold.minutes");
         thresholdDuration = Duration.ofMinutes(thresholdMinutes);
+        registerWindow(thresholdDuration);
         latestRateQueue = new ArrayDeque<Rate>();
         latestRateQueue.add(Rate.builder().ask(Integer.MIN_VALUE).bid(Integer.MAX_VALUE).build());
         diffRateQueue = new ArrayDeque<Rate>();
@@ -57,6 +85,8 @@ public class RateAnalyzer {
 
     public void add(Rate rate) {
 
+        queryVersion++;
+
         Rate latestRate = latestRateQueue.getLast();
         latestRateQueue.add(rate);
         if (latestRateQueue.size() > 5) {
@@ -76,12 +106,19 @@ public class RateAnalyzer {
         }
 
         if (!isDoubtful()) {
-            rates.add(rate);
+            long seq = ticks.add(rate.getAsk(), rate.getBid(), AutoTradeUtils.toEpochMilli(rate.getTimestamp()));
+            bars.add(seq);
+            for (int i = 0; i < rateWindowList.size(); i++) {
+                rateWindowList.get(i).add(seq);
+            }
             updateWaterMark(rate);
         }
-        rates = rates.stream()
-                .filter(r -> r.passed().toMillis() <= Duration.ofMinutes(20).toMillis())
-                .collect(Collectors.toList());
+        long retentionFrom = clock.millis() - RETENTION_MILLIS;
+        ticks.evictBefore(retentionFrom);
+        bars.evictBefore(retentionFrom);
+        for (int i = 0; i < rateWindowList.size(); i++) {
+            rateWindowList.get(i).evictBefore(retentionFrom);
+        }
 
         // 売買閾値設定
         askThreshold = maxWithin(thresholdDuration);
@@ -100,12 +137,81 @@ public class RateAnalyzer {
         return maxWithin(duration) - minWithin(duration);
     }
 
+    /**
+     * 価格変化のみを追加する場合に、変化がなかったことを記録する
+     */
+    public void addNoMove() {
+        isMoved = false;
+        noMoveCounter++;
+    }
+
     public int maxWithin(Duration duration) {
-        return maxBetween(LocalDateTime.now().minus(duration), LocalDateTime.now());
+        return query(duration, RateWindow.Query.MAX);
     }
 
     public int minWithin(Duration duration) {
-        return minBetween(LocalDateTime.now().minus(duration), LocalDateTime.now());
+        return query(duration, RateWindow.Query.MIN);
+    }
+
+    /**
+     * 期間別のスライディングウィンドウを登録する
+     * 未登録の期間は初回参照時に登録されるため、事前登録は任意
+     */
+    public void registerWindow(Duration duration) {
+        rateWindow(duration);
+    }
+
+    /**
+     * 期間別の参照結果を同一tick内でキャッシュする
+     */
+    private int query(Duration duration, RateWindow.Query query) {
+        RateWindow window = rateWindow(duration);
+        if (queryMillis != clock.millis()) {
+            queryMillis = clock.millis();
+            queryVersion++;
+        }
+        if (window.isCached(query, queryVersion)) {
+            queryHitCount++;
+            return window.getCached(query);
+        }
+        queryMissCount++;
+        int value = 0;
+        switch (query) {
+        case MAX:
+            value = window.max(queryMillis);
+            break;
+        case MIN:
+            value = window.min(queryMillis);
+            break;
+        case AVERAGE:
+            value = window.average(queryMillis);
+            break;
+        case TIME_WEIGHTED_AVERAGE:
+            value = window.timeWeightedAverage(queryMillis);
+            break;
+        case UPWARD:
+            value = window.isUpward(queryMillis) ? 1 : 0;
+            break;
+        }
+        return window.putCached(query, queryVersion, value);
+    }
+
+    public void resetQueryCount() {
+        queryHitCount = 0;
+        queryMissCount = 0;
+    }
+
+    private RateWindow rateWindow(Duration duration) {
+        RateWindow window = rateWindows.get(duration);
+        if (window == null) {
+            window = new RateWindow(duration, ticks);
+            for (long seq = ticks.headSeq(); seq < ticks.tailSeq(); seq++) {
+                window.add(seq);
+            }
+            rateWindows.put(duration, window);
+            rateWindowList.add(window);
+        }
+        return window;
     }
 
     public int middleWithin(Duration duration) {
@@ -113,31 +219,48 @@ public class RateAnalyzer {
     }
 
     public int maxBetween(Temporal from, Temporal to) {
-        return rates.stream()
-                .filter(rateBetweenFilter(from, to))
-                .map(Rate::getAsk)
-                .max(Comparator.naturalOrder())
-                .orElse(Integer.MAX_VALUE);
+        return maxBetween(toEpochMilli(from), toEpochMilli(to));
     }
 
     public int minBetween(Temporal from, Temporal to) {
-        return rates.stream()
-                .filter(rateBetweenFilter(from, to))
-                .map(Rate::getBid)
-                .min(Comparator.naturalOrder())
-                .orElse(Integer.MIN_VALUE);
+        return minBetween(toEpochMilli(from), toEpochMilli(to));
+    }
+
+    private int maxBetween(long fromMillis, long toMillis) {
+        return ticks.maxAsk(ticks.lowerBound(fromMillis), ticks.upperBound(toMillis));
+    }
+
+    private int minBetween(long fromMillis, long toMillis) {
+        return ticks.minBid(ticks.lowerBound(fromMillis), ticks.upperBound(toMillis));
     }
 
     public int averageWithin(Duration duration) {
-        return averageBetween(LocalDateTime.now().minus(duration), LocalDateTime.now());
+        return query(duration, RateWindow.Query.AVERAGE);
     }
 
     public int averageBetween(Temporal from, Temporal to) {
-        return (int) rates.stream()
-                .filter(rateBetweenFilter(from, to))
-                .mapToInt(Rate::getMiddle)
-                .average()
-                .orElse(0.0);
+        return ticks.average(ticks.lowerBound(toEpochMilli(from)), ticks.upperBound(toEpochMilli(to)));
+    }
+
+    /**
+     * 時間加重平均
+     * Rateの件数ではなく、各仲値が継続した時間で重み付けする
+     */
+    public int timeWeightedAverageWithin(Duration duration) {
+        return query(duration, RateWindow.Query.TIME_WEIGHTED_AVERAGE);
+    }
+
+    public int timeWeightedAverageBetween(Temporal from, Temporal to) {
+        long fromMillis = toEpochMilli(from);
+        long toMillis = toEpochMilli(to);
+        return ticks.timeWeightedAverage(ticks.lowerBound(fromMillis), fromMillis, ticks.upperBound(toMillis), toMillis);
+    }
+
+    /**
+     * 直近の期間内に開始した足を取得する
+     */
+    public List<Bar> getBars(BarResolution resolution, Duration duration) {
+        return bars.getBars(resolution, clock.millis() - duration.toMillis());
     }
 
     public int halfWithin(Duration duration) {
@@ -153,23 +276,12 @@ public class RateAnalyzer {
         }
     }
 
-    private Predicate<Rate> rateBetweenFilter(Temporal from, Temporal to) {
-        return r -> !Duration.between(from, r.getTimestamp()).isNegative()
-                && !Duration.between(r.getTimestamp(), to).isNegative();
+    private static long toEpochMilli(Temporal temporal) {
+        return AutoTradeUtils.toEpochMilli(LocalDateTime.from(temporal));
     }
 
     public boolean isUpwardWithin(Duration duration) {
-        LocalDateTime whenMax = rates.stream()
-                .filter(rateBetweenFilter(LocalDateTime.now().minus(duration), LocalDateTime.now()))
-                .max(Comparator.comparing(Rate::getAsk))
-                .map(Rate::getTimestamp)
-                .orElse(LocalDateTime.now());
-        LocalDateTime whenMin = rates.stream()
-                .filter(rateBetweenFilter(LocalDateTime.now().minus(duration), LocalDateTime.now()))
-                .min(Comparator.comparing(Rate::getBid))
-                .map(Rate::getTimestamp)
-                .orElse(LocalDateTime.now());
-        return whenMax.isAfter(whenMin);
+        return query(duration, RateWindow.Query.UPWARD) == 1;
     }
 
     public boolean isDownwardWithin(Duration duration) {
@@ -209,17 +321,23 @@ public class RateAnalyzer {
     }
 
     public Rate getEarliestRate() {
-        return rates.stream()
-                .min(Comparator.comparing(Rate::getTimestamp))
-                .orElse(Rate.builder().timestamp(LocalDateTime.now()).build());
+        if (ticks.isEmpty()) {
+            return Rate.builder().timestamp(clock.now()).build();
+        }
+        long seq = ticks.headSeq();
+        return Rate.builder()
+                .pair(latestRateQueue.getLast().getPair())
+                .ask(ticks.ask(seq))
+                .bid(ticks.bid(seq))
+                .timestamp(AutoTradeUtils.toLocalDateTime(ticks.epochMillis(seq)))
+                .build();
     }
 
     public long passCountWithin(int threshold, int minutes) {
+        long nowMillis = clock.millis();
         return IntStream.range(0, minutes).filter(i -> {
-            LocalDateTime now = LocalDateTime.now();
-            int max = maxBetween(now.minus(Duration.ofMinutes(i + 1)), now.minus(Duration.ofMinutes(i)));
-            int min = minBetween(now.minus(Duration.ofMinutes(i + 1)), now.minus(Duration.ofMinutes(i)));
-            if (min <= threshold && threshold <= max) {
+            bars.aggregate(nowMillis - (i + 1) * MINUTE_MILLIS, nowMillis - i * MINUTE_MILLIS);
+            if (bars.min() <= threshold && threshold <= bars.max()) {
                 return true;
             }
             return false;
@@ -260,6 +378,7 @@ public class RateAnalyzer {
 
     public void setThresholdDuration(Duration duration) {
         thresholdDuration = duration;
+        registerWindow(duration);
     }
 
     public void resetCountertrading() {
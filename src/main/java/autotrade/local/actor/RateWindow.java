@@ -0,0 +1,216 @@
+package autotrade.local.actor;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * 指定期間内のask最大値、bid最小値を保持するスライディングウィンドウ
+ * TickBufferのseqを単調キューで管理するため、追加、参照ともに償却O(1)で処理できる
+ * 期間内の先頭seqも併せて保持し、TickBufferの累積和から平均値をO(1)で求める
+ * キューの先頭は最大値、最小値となるRateのseqのため、それぞれの時刻もO(1)で参照できる
+ * 同一tick内の重複参照に備え、参照結果を種類別にバージョン付きで保持する
+ *
+ * 期間の終端は判断時刻(nowMillis)とし、timestampが判断時刻より後のRateは含めない
+ * (OBSERVERモードでは画面のtimestampが判断時刻より後となる場合がある)
+ * そのようなRateがある場合は、単調キューから除かれたRateも対象となるため、TickBufferの区間参照で求める
+ */
+class RateWindow {
+
+    enum Query {
+        MAX,
+        MIN,
+        AVERAGE,
+        TIME_WEIGHTED_AVERAGE,
+        UPWARD,
+    }
+
+    @Getter
+    private Duration duration;
+    private long durationMillis;
+    private TickBuffer ticks;
+    // 期間内の最初のseq
+    private long headSeq;
+
+    // askの降順(先頭が最大値)
+    private SeqQueue askQueue;
+    // bidの昇順(先頭が最小値)
+    private SeqQueue bidQueue;
+
+    private long[] cachedVersions;
+    private int[] cachedValues;
+
+    RateWindow(Duration duration, TickBuffer ticks) {
+        this.duration = duration;
+        this.durationMillis = duration.toMillis();
+        this.ticks = ticks;
+        this.headSeq = ticks.headSeq();
+        askQueue = new SeqQueue();
+        bidQueue = new SeqQueue();
+        cachedVersions = new long[Query.values().length];
+        Arrays.fill(cachedVersions, -1);
+        cachedValues = new int[Query.values().length];
+    }
+
+    boolean isCached(Query query, long version) {
+        return cachedVersions[query.ordinal()] == version;
+    }
+
+    int getCached(Query query) {
+        return cachedValues[query.ordinal()];
+    }
+
+    int putCached(Query query, long version, int value) {
+        cachedVersions[query.ordinal()] = version;
+        cachedValues[query.ordinal()] = value;
+        return value;
+    }
+
+    void add(long seq) {
+        // 同値の場合は古いRateを先頭に残す(stream#max、stream#minと同じ挙動)
+        while (!askQueue.isEmpty() && ticks.ask(askQueue.last()) < ticks.ask(seq)) {
+            askQueue.pollLast();
+        }
+        askQueue.addLast(seq);
+        while (!bidQueue.isEmpty() && ticks.bid(bidQueue.last()) > ticks.bid(seq)) {
+            bidQueue.pollLast();
+        }
+        bidQueue.addLast(seq);
+    }
+
+    /**
+     * fromMillisより前のRate、TickBufferから破棄済みのRateを除外する
+     */
+    void evictBefore(long fromMillis) {
+        headSeq = Math.max(headSeq, ticks.headSeq());
+        while (headSeq < ticks.tailSeq() && ticks.epochMillis(headSeq) < fromMillis) {
+            headSeq++;
+        }
+        evictBefore(askQueue, fromMillis);
+        evictBefore(bidQueue, fromMillis);
+    }
+
+    private void evictBefore(SeqQueue queue, long fromMillis) {
+        while (!queue.isEmpty()
+                && (queue.first() < ticks.headSeq() || ticks.epochMillis(queue.first()) < fromMillis)) {
+            queue.pollFirst();
+        }
+    }
+
+    int max(long nowMillis) {
+        evictBefore(nowMillis - durationMillis);
+        long toSeq = toSeq(nowMillis);
+        if (toSeq < ticks.tailSeq()) {
+            return ticks.maxAsk(headSeq, toSeq);
+        }
+        if (askQueue.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        return ticks.ask(askQueue.first());
+    }
+
+    int min(long nowMillis) {
+        evictBefore(nowMillis - durationMillis);
+        long toSeq = toSeq(nowMillis);
+        if (toSeq < ticks.tailSeq()) {
+            return ticks.minBid(headSeq, toSeq);
+        }
+        if (bidQueue.isEmpty()) {
+            return Integer.MIN_VALUE;
+        }
+        return ticks.bid(bidQueue.first());
+    }
+
+    /**
+     * @return 期間内で最大値が最小値より後に発生している場合true
+     */
+    boolean isUpward(long nowMillis) {
+        evictBefore(nowMillis - durationMillis);
+        long toSeq = toSeq(nowMillis);
+        if (toSeq < ticks.tailSeq()) {
+            return isUpward(headSeq, toSeq);
+        }
+        if (askQueue.isEmpty()) {
+            return false;
+        }
+        return ticks.epochMillis(askQueue.first()) > ticks.epochMillis(bidQueue.first());
+    }
+
+    int average(long nowMillis) {
+        evictBefore(nowMillis - durationMillis);
+        return ticks.average(headSeq, toSeq(nowMillis));
+    }
+
+    int timeWeightedAverage(long nowMillis) {
+        evictBefore(nowMillis - durationMillis);
+        return ticks.timeWeightedAverage(headSeq, nowMillis - durationMillis, toSeq(nowMillis), nowMillis);
+    }
+
+    /**
+     * @return timestampがnowMillisより後となる最初のseq
+     */
+    private long toSeq(long nowMillis) {
+        if (ticks.isEmpty() || ticks.lastEpochMillis() <= nowMillis) {
+            return ticks.tailSeq();
+        }
+        return ticks.upperBound(nowMillis);
+    }
+
+    /**
+     * [fromSeq, toSeq)を走査して判定する(判断時刻より後のRateがある場合のみ)
+     */
+    private boolean isUpward(long fromSeq, long toSeq) {
+        if (fromSeq >= toSeq) {
+            return false;
+        }
+        long maxSeq = fromSeq;
+        long minSeq = fromSeq;
+        for (long seq = fromSeq + 1; seq < toSeq; seq++) {
+            if (ticks.ask(seq) > ticks.ask(maxSeq)) {
+                maxSeq = seq;
+            }
+            if (ticks.bid(seq) < ticks.bid(minSeq)) {
+                minSeq = seq;
+            }
+        }
+        return ticks.epochMillis(maxSeq) > ticks.epochMillis(minSeq);
+    }
+
+    /**
+     * long値の両端キュー
+     */
+    private static class SeqQueue {
+
+        private long[] values = new long[64];
+        private int head;
+        private int tail;
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+        long first() {
+            return values[head & (values.length - 1)];
+        }
+        long last() {
+            return values[(tail - 1) & (values.length - 1)];
+        }
+        void pollFirst() {
+            head++;
+        }
+        void pollLast() {
+            tail--;
+        }
+        void addLast(long value) {
+            if (tail - head == values.length) {
+                long[] newValues = new long[values.length << 1];
+                for (int i = 0; i < values.length; i++) {
+                    newValues[(head + i) & (newValues.length - 1)] = values[(head + i) & (values.length - 1)];
+                }
+                values = newValues;
+            }
+            values[tail & (values.length - 1)] = value;
+            tail++;
+        }
+    }
+}
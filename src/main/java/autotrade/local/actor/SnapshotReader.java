@@ -0,0 +1,159 @@
+package autotrade.local.actor;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.Snapshot;
+import autotrade.local.utility.LatencyRecorder;
+import autotrade.local.utility.SpscRingBuffer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 画面からのSnapshot取得を専用スレッドで行い、取引スレッドへ受け渡す
+ * 受け渡したSnapshotは変更しないこと(値を差し替える場合は複製する)
+ *
+ * 取引スレッドは溜まっているSnapshotのうち最新のもののみを使い、それ以外は読み捨てる(conflation)
+ * 注文、決済の後はdiscardStale()で、それ以前に取得を開始したSnapshotを使わないようにすること
+ */
+@Slf4j
+public class SnapshotReader {
+
+    private static final int CAPACITY = 64;
+    private static final Duration TAKE_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration ERROR_INTERVAL = Duration.ofMillis(100);
+
+    @AllArgsConstructor
+    private static class Published {
+        private Snapshot snapshot;
+        private long startedNanos;
+        private long readNanos;
+    }
+
+    private Supplier<Snapshot> snapshotSupplier;
+    private SpscRingBuffer<Published> buffer;
+    private volatile boolean running;
+    private volatile long minStartedNanos;
+    private Thread thread;
+
+    // 生産者のみ更新
+    private AtomicLong readCount;
+    private AtomicLong droppedCount;
+    private AtomicLong errorCount;
+    // 消費者のみ更新
+    private AtomicLong conflatedCount;
+    private volatile int lastDepth;
+    // 取得完了から取引スレッドが受け取るまでの時間
+    private LatencyRecorder age;
+
+    public SnapshotReader(Supplier<Snapshot> snapshotSupplier) {
+        this.snapshotSupplier = snapshotSupplier;
+        this.buffer = new SpscRingBuffer<>(CAPACITY);
+        this.readCount = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+        this.errorCount = new AtomicLong();
+        this.conflatedCount = new AtomicLong();
+        this.age = new LatencyRecorder();
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::read, "snapshot-reader");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("snapshot reader is started.");
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        log.info("snapshot reader is stopped.");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 溜まっているSnapshotのうち最新のものを取り出す、存在しない場合は取得されるまで待機する
+     *
+     * @throws ApplicationException 一定時間取得されない場合
+     */
+    public Snapshot takeLatest() {
+        long deadline = System.nanoTime() + TAKE_TIMEOUT.toNanos();
+        while (true) {
+            lastDepth = buffer.size();
+            Published latest = null;
+            int count = 0;
+            Published published;
+            while ((published = buffer.poll()) != null) {
+                count++;
+                if (published.startedNanos >= minStartedNanos) {
+                    latest = published;
+                }
+            }
+            if (latest != null) {
+                conflatedCount.addAndGet(count - 1);
+                age.record(System.nanoTime() - latest.readNanos);
+                return latest.snapshot;
+            }
+            conflatedCount.addAndGet(count);
+            if (System.nanoTime() > deadline) {
+                throw new ApplicationException("snapshot is not read.");
+            }
+            LockSupport.parkNanos(Duration.ofMillis(1).toNanos());
+        }
+    }
+
+    /**
+     * 現時点より前に取得を開始したSnapshotを以降使わない
+     */
+    public void discardStale() {
+        minStartedNanos = System.nanoTime();
+    }
+
+    public String getReport() {
+        return MessageFormat.format("read {0} depth {1} dropped {2} conflated {3} error {4}\nage {5}",
+                readCount.get(), lastDepth, droppedCount.get(), conflatedCount.get(), errorCount.get(), age);
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getConflatedCount() {
+        return conflatedCount.get();
+    }
+
+    public LatencyRecorder getAge() {
+        return age;
+    }
+
+    private void read() {
+        while (running) {
+            long started = System.nanoTime();
+            try {
+                Snapshot snapshot = snapshotSupplier.get();
+                readCount.incrementAndGet();
+                if (!buffer.offer(new Published(snapshot, started, System.nanoTime()))) {
+                    // 取引スレッドが受け取るまで待機する
+                    droppedCount.incrementAndGet();
+                    LockSupport.parkNanos(Duration.ofMillis(1).toNanos());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                errorCount.incrementAndGet();
+                log.warn("snapshot read is failed. {}", e.getMessage());
+                LockSupport.parkNanos(ERROR_INTERVAL.toNanos());
+            }
+        }
+    }
+}
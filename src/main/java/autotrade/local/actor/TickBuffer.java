@@ -0,0 +1,268 @@
+package autotrade.local.actor;
+
+/**
+ * ask、bid、timestampをプリミティブ配列で保持するリングバッファ
+ * 各Rateには追加順の通し番号(seq)を割り当て、[headSeq, tailSeq)が有効範囲となる
+ * timestampは昇順で追加されることを前提とし、古いものから時間で破棄する
+ * 容量が不足した場合のみ倍に拡張するため、定常状態ではアロケーションしない
+ *
+ * 任意区間の最大値、最小値をO(log n)で求めるため、RangeIndexを併せて更新する
+ * 平均値をO(1)で求めるため、仲値の累積和と仲値の時間積分(次のRateまで仲値が継続したとみなす)を併せて保持する
+ */
+class TickBuffer {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private int[] asks;
+    private int[] bids;
+    private long[] epochMillis;
+    // seqより前の仲値の合計
+    private long[] middlePrefixes;
+    // 最初のRateからseqのtimestampまでの仲値の時間積分
+    private long[] areas;
+    private long middleTotal;
+    private RangeIndex rangeIndex;
+    private int mask;
+    private long headSeq;
+    private long tailSeq;
+
+    TickBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    TickBuffer(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+        asks = new int[capacity];
+        bids = new int[capacity];
+        epochMillis = new long[capacity];
+        middlePrefixes = new long[capacity];
+        areas = new long[capacity];
+        rangeIndex = new RangeIndex(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return 追加したRateのseq
+     */
+    long add(int ask, int bid, long millis) {
+        if (size() == capacity()) {
+            grow();
+        }
+        if (!isEmpty() && millis < lastEpochMillis()) {
+            // timestampの逆転は直前の値に丸めて昇順を保つ
+            millis = lastEpochMillis();
+        }
+        long area = 0;
+        if (tailSeq > 0) {
+            area = areaUntil(tailSeq - 1, millis);
+        }
+        int index = index(tailSeq);
+        asks[index] = ask;
+        bids[index] = bid;
+        epochMillis[index] = millis;
+        middlePrefixes[index] = middleTotal;
+        areas[index] = area;
+        rangeIndex.update(index, ask, bid);
+        middleTotal += (ask + bid) / 2;
+        return tailSeq++;
+    }
+
+    /**
+     * fromMillisより前のRateを破棄する
+     */
+    void evictBefore(long fromMillis) {
+        while (headSeq < tailSeq && epochMillis[index(headSeq)] < fromMillis) {
+            headSeq++;
+        }
+    }
+
+    /**
+     * @return timestampがmillis以上となる最初のseq、存在しない場合はtailSeq
+     */
+    long lowerBound(long millis) {
+        long low = headSeq;
+        long high = tailSeq;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (epochMillis[index(middle)] < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return timestampがmillisより後となる最初のseq、存在しない場合はtailSeq
+     */
+    long upperBound(long millis) {
+        long low = headSeq;
+        long high = tailSeq;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (epochMillis[index(middle)] <= millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    int ask(long seq) {
+        return asks[index(seq)];
+    }
+
+    int bid(long seq) {
+        return bids[index(seq)];
+    }
+
+    int middle(long seq) {
+        return (ask(seq) + bid(seq)) / 2;
+    }
+
+    long epochMillis(long seq) {
+        return epochMillis[index(seq)];
+    }
+
+    /**
+     * @return seqより前の仲値の合計(seqはtailSeqまで指定可能)
+     */
+    long middlePrefix(long seq) {
+        if (seq == tailSeq) {
+            return middleTotal;
+        }
+        return middlePrefixes[index(seq)];
+    }
+
+    /**
+     * @return 最初のRateからmillisまでの仲値の時間積分(seqはmillis以前の直近のRate)
+     */
+    long areaUntil(long seq, long millis) {
+        return areas[index(seq)] + (long) middle(seq) * (millis - epochMillis(seq));
+    }
+
+    /**
+     * @return [fromSeq, toSeq)のask最大値、存在しない場合はInteger.MAX_VALUE
+     */
+    int maxAsk(long fromSeq, long toSeq) {
+        if (fromSeq >= toSeq) {
+            return Integer.MAX_VALUE;
+        }
+        int from = index(fromSeq);
+        int to = from + (int) (toSeq - fromSeq);
+        if (to <= capacity()) {
+            return rangeIndex.maxAsk(from, to);
+        }
+        // リングの末尾で折り返す場合は2区間に分ける
+        return Math.max(rangeIndex.maxAsk(from, capacity()), rangeIndex.maxAsk(0, to - capacity()));
+    }
+
+    /**
+     * @return [fromSeq, toSeq)のbid最小値、存在しない場合はInteger.MIN_VALUE
+     */
+    int minBid(long fromSeq, long toSeq) {
+        if (fromSeq >= toSeq) {
+            return Integer.MIN_VALUE;
+        }
+        int from = index(fromSeq);
+        int to = from + (int) (toSeq - fromSeq);
+        if (to <= capacity()) {
+            return rangeIndex.minBid(from, to);
+        }
+        // リングの末尾で折り返す場合は2区間に分ける
+        return Math.min(rangeIndex.minBid(from, capacity()), rangeIndex.minBid(0, to - capacity()));
+    }
+
+    /**
+     * @return [fromSeq, toSeq)の仲値の平均、存在しない場合は0
+     */
+    int average(long fromSeq, long toSeq) {
+        if (fromSeq >= toSeq) {
+            return 0;
+        }
+        return (int) ((double) (middlePrefix(toSeq) - middlePrefix(fromSeq)) / (toSeq - fromSeq));
+    }
+
+    /**
+     * [fromMillis, toMillis]の仲値の時間加重平均
+     * fromMillis時点の仲値は直前のRateから求め、保持しているRateより前は最古のRateから集計する
+     *
+     * @param fromSeq timestampがfromMillis以上となる最初のseq
+     * @param toSeq timestampがtoMillisより後となる最初のseq
+     * @return 時間加重平均、toMillis以前のRateが存在しない場合は0
+     */
+    int timeWeightedAverage(long fromSeq, long fromMillis, long toSeq, long toMillis) {
+        long lastSeq = toSeq - 1;
+        if (lastSeq < headSeq) {
+            return 0;
+        }
+        long startSeq = fromSeq - 1;
+        long startMillis = fromMillis;
+        if (startSeq < headSeq) {
+            startSeq = headSeq;
+            startMillis = epochMillis(headSeq);
+        }
+        if (toMillis <= startMillis) {
+            return middle(lastSeq);
+        }
+        long area = areaUntil(lastSeq, toMillis) - areaUntil(startSeq, startMillis);
+        return (int) ((double) area / (toMillis - startMillis));
+    }
+
+    long lastEpochMillis() {
+        return epochMillis(tailSeq - 1);
+    }
+
+    long headSeq() {
+        return headSeq;
+    }
+
+    long tailSeq() {
+        return tailSeq;
+    }
+
+    int size() {
+        return (int) (tailSeq - headSeq);
+    }
+
+    boolean isEmpty() {
+        return headSeq == tailSeq;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+
+    private void grow() {
+        int capacity = capacity() << 1;
+        int[] newAsks = new int[capacity];
+        int[] newBids = new int[capacity];
+        long[] newEpochMillis = new long[capacity];
+        long[] newMiddlePrefixes = new long[capacity];
+        long[] newAreas = new long[capacity];
+        RangeIndex newRangeIndex = new RangeIndex(capacity);
+        int newMask = capacity - 1;
+        for (long seq = headSeq; seq < tailSeq; seq++) {
+            int newIndex = (int) (seq & newMask);
+            newAsks[newIndex] = ask(seq);
+            newBids[newIndex] = bid(seq);
+            newEpochMillis[newIndex] = epochMillis(seq);
+            newMiddlePrefixes[newIndex] = middlePrefixes[index(seq)];
+            newAreas[newIndex] = areas[index(seq)];
+            newRangeIndex.update(newIndex, ask(seq), bid(seq));
+        }
+        asks = newAsks;
+        bids = newBids;
+        epochMillis = newEpochMillis;
+        middlePrefixes = newMiddlePrefixes;
+        areas = newAreas;
+        rangeIndex = newRangeIndex;
+        mask = newMask;
+    }
+}
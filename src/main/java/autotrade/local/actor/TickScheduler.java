@@ -0,0 +1,119 @@
+package autotrade.local.actor;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import autotrade.local.utility.LatencyRecorder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AutoTraderのループを一定間隔で実行する
+ * 予定時刻は前回の予定時刻から進めるため、処理時間の揺らぎが次回以降に累積しない
+ * 処理が間隔を超えた場合(overrun)は遅れを取り戻さず、現在時刻から数え直す
+ *
+ * レートが動かない状態が続いた場合は間隔を倍ずつ広げ(最大maxInterval)、動いた場合、指標が近い場合は目標間隔に戻す
+ */
+@Slf4j
+@Getter
+public class TickScheduler {
+
+    private static final Duration DEFAULT_TARGET_INTERVAL = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(1);
+    // 間隔を広げるまでの、レートが動かない連続回数
+    private static final int IDLE_TICKS_TO_BACK_OFF = 50;
+
+    private Duration targetInterval;
+    private Duration maxInterval;
+    private long intervalNanos;
+    private int idleTicks;
+
+    private long scheduledNanos;
+    private long startedNanos;
+    private long overrunCount;
+    // 予定時刻から実際に開始するまでの遅れ
+    private LatencyRecorder jitter;
+    // 開始から判断完了までの処理時間
+    private LatencyRecorder work;
+
+    public TickScheduler() {
+        this(DEFAULT_TARGET_INTERVAL, DEFAULT_MAX_INTERVAL);
+    }
+
+    public TickScheduler(Duration targetInterval, Duration maxInterval) {
+        this.targetInterval = targetInterval;
+        this.maxInterval = maxInterval;
+        this.intervalNanos = targetInterval.toNanos();
+        this.jitter = new LatencyRecorder();
+        this.work = new LatencyRecorder();
+    }
+
+    /**
+     * 次の予定時刻まで待機する
+     */
+    public void awaitNextTick() {
+        long now = System.nanoTime();
+        if (scheduledNanos == 0) {
+            scheduledNanos = now;
+        }
+        while (now < scheduledNanos) {
+            LockSupport.parkNanos(scheduledNanos - now);
+            now = System.nanoTime();
+        }
+        jitter.record(now - scheduledNanos);
+        startedNanos = now;
+    }
+
+    /**
+     * 1回分の処理の完了を記録し、次の予定時刻を決める
+     *
+     * @param moved レートが動いたか
+     * @param nearIndicator 指標が近いか
+     */
+    public void endTick(boolean moved, boolean nearIndicator) {
+        long now = System.nanoTime();
+        work.record(now - startedNanos);
+        adapt(moved, nearIndicator);
+        scheduledNanos += intervalNanos;
+        if (scheduledNanos < now) {
+            overrunCount++;
+            scheduledNanos = now;
+        }
+    }
+
+    private void adapt(boolean moved, boolean nearIndicator) {
+        if (moved || nearIndicator) {
+            idleTicks = 0;
+            intervalNanos = targetInterval.toNanos();
+            return;
+        }
+        idleTicks++;
+        if (idleTicks >= IDLE_TICKS_TO_BACK_OFF) {
+            idleTicks = 0;
+            intervalNanos = Math.min(intervalNanos * 2, maxInterval.toNanos());
+        }
+    }
+
+    public void changeTargetInterval(Duration targetInterval) {
+        this.targetInterval = targetInterval;
+        this.intervalNanos = targetInterval.toNanos();
+        this.idleTicks = 0;
+        log.info("tick interval is set {}ms.", targetInterval.toMillis());
+    }
+
+    public Duration getInterval() {
+        return Duration.ofNanos(intervalNanos);
+    }
+
+    public void resetMetrics() {
+        overrunCount = 0;
+        jitter.reset();
+        work.reset();
+    }
+
+    public String getReport() {
+        return MessageFormat.format("interval {0}ms overrun {1}\njitter {2}\nwork {3}",
+                getInterval().toMillis(), overrunCount, jitter, work);
+    }
+}
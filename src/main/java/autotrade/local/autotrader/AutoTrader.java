@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
@@ -18,31 +17,46 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.function.ToIntFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.chrome.ChromeDriver;
 
 import autotrade.local.actor.IndicatorManager;
 import autotrade.local.actor.LotManager;
+import autotrade.local.actor.LotStager;
 import autotrade.local.actor.MessageListener;
 import autotrade.local.actor.MessageListener.ReservedMessage;
 import autotrade.local.actor.Messenger;
+import autotrade.local.actor.OrderConfirmer;
 import autotrade.local.actor.RateAnalyzer;
 import autotrade.local.actor.ReserveManager;
+import autotrade.local.actor.SnapshotReader;
+import autotrade.local.actor.TickScheduler;
 import autotrade.local.actor.SameManager;
 import autotrade.local.actor.UploadManager;
 import autotrade.local.exception.ApplicationException;
+import autotrade.local.journal.TickJournal;
+import autotrade.local.marketdata.MarketDataSource;
+import autotrade.local.marketdata.impl.SeleniumMarketDataSource;
+import autotrade.local.marketdata.impl.SocketMarketDataSource;
 import autotrade.local.material.AudioPath;
 import autotrade.local.material.CurrencyPair;
 import autotrade.local.material.DisplayMode;
+import autotrade.local.material.FeedMode;
+import autotrade.local.material.OrderType;
 import autotrade.local.material.Rate;
+import autotrade.local.material.RateListRow;
 import autotrade.local.material.Snapshot;
 import autotrade.local.utility.AutoTradeProperties;
 import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.SnapshotField;
+import autotrade.local.utility.TickClock;
 import autotrade.local.utility.WebDriverWrapper;
 import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import lombok.extern.slf4j.Slf4j;
@@ -54,15 +68,36 @@ public abstract class AutoTrader {
     protected CurrencyPair priorityPair;
     protected Set<CurrencyPair> changeablePairs;
     protected DisplayMode displayMode;
+    protected FeedMode feedMode;
+    // レート一覧から取得する間隔(通貨ペア別)
+    protected Map<CurrencyPair, Duration> rateListIntervals;
+    protected Map<CurrencyPair, Long> nextRateListMillis;
 
+    protected TickClock clock;
     protected WebDriver driver;
     protected WebDriverWrapper wrapper;
+    // 初期処理でWebDriver、WebDriverWrapperを生成する(バックテストではシミュレーションに差し替える)
+    protected Supplier<WebDriver> driverFactory;
+    protected Function<WebDriver, WebDriverWrapper> wrapperFactory;
+    // 設定されている場合、Rateは画面ではなくこちらから取得する(画面は注文にのみ使う)
+    protected MarketDataSource marketDataSource;
     protected Map<CurrencyPair, RateAnalyzer> pairAnalyzerMap;
     protected RateAnalyzer rateAnalyzer;
     protected IndicatorManager indicatorManager;
     protected UploadManager uploadManager;
     protected LotManager lotManager;
     protected ReserveManager reserveManager;
+    protected OrderConfirmer orderConfirmer;
+    protected LotStager lotStager;
+    protected boolean isLotStaging;
+    protected TickScheduler tickScheduler;
+    // 設定されている場合、Snapshotは専用スレッドで取得したものを使う
+    protected SnapshotReader snapshotReader;
+    protected boolean isSnapshotReader;
+    // 設定されている場合、rateAnalyzerに追加したRateを記録する
+    protected TickJournal tickJournal;
+    // 直近の取引判断に使ったRate(発注時のログに出力する)
+    protected Rate decisionRate;
 
     @SuppressWarnings("unused")
     protected StatefulRedisPubSubConnection<String, String> pubSubConnection;
@@ -79,6 +114,7 @@ public abstract class AutoTrader {
     protected boolean isIgnoreSpread;
     protected boolean isAutoRecommended;
     protected boolean isForceException;
+    protected boolean isScriptSnapshot;
 
     public AutoTrader() {
         pair = CurrencyPair.USDJPY;
@@ -86,18 +122,29 @@ public abstract class AutoTrader {
                 .map(CurrencyPair::valueOf)
                 .collect(Collectors.toSet());
         displayMode = DisplayMode.CHART;
+        feedMode = FeedMode.POLLING;
+        rateListIntervals = Stream.of(CurrencyPair.values()).collect(Collectors.toMap(p -> p, p -> Duration.ofSeconds(1)));
+        nextRateListMillis = new HashMap<>();
 
         inactiveStart = LocalTime.from(DateTimeFormatter.ISO_LOCAL_TIME.parse(AutoTradeProperties.get("autotrade.inactive.start")));
         inactiveEnd = LocalTime.from(DateTimeFormatter.ISO_LOCAL_TIME.parse(AutoTradeProperties.get("autotrade.inactive.end")));
 
-        pairAnalyzerMap = Stream.of(CurrencyPair.values()).collect(Collectors.toMap(pair -> pair, pair -> new RateAnalyzer()));
+        clock = TickClock.system();
+        driverFactory = ChromeDriver::new;
+        wrapperFactory = WebDriverWrapper::new;
+        pairAnalyzerMap = Stream.of(CurrencyPair.values()).collect(Collectors.toMap(pair -> pair, pair -> new RateAnalyzer(clock)));
         rateAnalyzer = pairAnalyzerMap.get(pair);
         uploadManager = new UploadManager();
         lotManager = new LotManager();
-        indicatorManager = new IndicatorManager();
+        indicatorManager = new IndicatorManager(clock);
         reserveManager = new ReserveManager();
+        orderConfirmer = new OrderConfirmer(clock);
+        lotStager = new LotStager();
+        tickJournal = new TickJournal();
+        tickScheduler = new TickScheduler();
         pubSubConnection = Messenger.createPubSubConnection(customizeMessageListener());
 
+        isScriptSnapshot = true;
         isAutoRecommended = AutoTradeProperties.getBoolean("autotrade.autoRecommended.flag");
         if (CurrencyPair.getNames().contains(AutoTradeProperties.get("autotrade.autoRecommended.priorityPair"))) {
             priorityPair = CurrencyPair.valueOf(AutoTradeProperties.get("autotrade.autoRecommended.priorityPair"));
@@ -108,25 +155,19 @@ public abstract class AutoTrader {
 
         try {
             // 初期処理
-            initialize();
+            open();
 
             // 繰り返し実行
             while(true) {
 
-                // 最新情報取得
-                Snapshot snapshot = buildSnapshot();
+                // 次の実行予定まで待機
+                tickScheduler.awaitNextTick();
 
-                // 取引前処理
-                tradePreProcess(snapshot);
+                // 1回分の判断
+                operateTick();
 
-                // 取引
-                trade(snapshot);
-
-                // 取引後処理
-                tradePostProcess(snapshot);
-
-                // メッセージダイアログクローズ
-                wrapper.cancelMessage();
+                // 次の実行間隔を決定
+                tickScheduler.endTick(rateAnalyzer.isMoved(), isNearIndicator());
 
                 // 強制例外スロー
                 if (isForceException) {
@@ -138,44 +179,108 @@ public abstract class AutoTrader {
         } catch(Exception e) {
             log.error(e.getMessage(), e);
         } finally {
-            driver.quit();
+            close();
         }
 
     }
 
+    /**
+     * 初期処理を行い、operateTick()を呼び出せる状態にする
+     */
+    public void open() {
+        clock.tick();
+        initialize();
+        lotStager.invalidate();
+        if (isSnapshotReader) {
+            startSnapshotReader();
+        }
+    }
+
+    /**
+     * 最新情報を取得し、1回分の取引判断を行う
+     */
+    public void operateTick() {
+
+        // 判断に使う現在時刻を確定
+        clock.tick();
+
+        // 最新情報取得
+        Snapshot snapshot = takeSnapshot();
+        decisionRate = snapshot.getRate();
+
+        // 取引前処理
+        tradePreProcess(snapshot);
+
+        // 次の注文数量を事前入力
+        stageLot(snapshot);
+
+        // 取引
+        trade(snapshot);
+
+        // 取引後処理
+        tradePostProcess(snapshot);
+
+        // メッセージダイアログクローズ
+        wrapper.cancelMessage();
+
+    }
+
+    public void close() {
+        stopSnapshotReader();
+        driver.quit();
+    }
+
+    /**
+     * ブラウザの代わりに指定したWebDriver、WebDriverWrapperで取引する(バックテスト用)
+     * 時刻は呼び出し側がgetClock()で進めるため、startを起点にFIXEDへ切り替える
+     */
+    public void simulate(Supplier<WebDriver> driverFactory, Function<WebDriver, WebDriverWrapper> wrapperFactory, LocalDateTime start) {
+        this.driverFactory = driverFactory;
+        this.wrapperFactory = wrapperFactory;
+        clock.fix(start);
+        // 直前の指標は生成時の時刻で初期化されているため作り直す
+        indicatorManager = new IndicatorManager(clock);
+        // 再生したRateは記録しない
+        changeTickJournal(false);
+    }
+
+    public TickClock getClock() {
+        return clock;
+    }
+
     abstract protected void order(Snapshot snapshot);
     abstract protected void fix(Snapshot snapshot);
 
     protected void initialize() {
         // WebDriver初期化
-        driver = new ChromeDriver();
-        wrapper = new WebDriverWrapper(driver);
+        driver = driverFactory.get();
+        wrapper = wrapperFactory.apply(driver);
 
         // 指標を確認する
         if (!indicatorManager.hasIndicator()) {
             // 本日分
-            indicatorManager.addIndicators(wrapper.getIndicators(LocalDate.now()));
+            indicatorManager.addIndicators(wrapper.getIndicators(clock.date()));
             // 翌日分
-            indicatorManager.addIndicators(wrapper.getIndicators(LocalDate.now().plusDays(1)));
+            indicatorManager.addIndicators(wrapper.getIndicators(clock.date().plusDays(1)));
             log.info("indicators is got.");
             AutoTradeUtils.printObject(indicatorManager.getIndicators());
         }
 
         // ログイン
         wrapper.login();
-        AutoTradeUtils.sleep(Duration.ofSeconds(5));
+        clock.sleep(Duration.ofSeconds(5));
 
         // メッセージダイアログクローズ
         wrapper.cancelMessage();
-        AutoTradeUtils.sleep(Duration.ofSeconds(1));
+        clock.sleep(Duration.ofSeconds(1));
 
         // ツール起動
         wrapper.startUpTradeTool();
-        AutoTradeUtils.sleep(Duration.ofSeconds(1));
+        clock.sleep(Duration.ofSeconds(1));
 
         // 取引設定
         wrapper.orderSettings();
-        AutoTradeUtils.sleep(Duration.ofSeconds(1));
+        clock.sleep(Duration.ofSeconds(1));
 
         // 開始時の証拠金を取得
         if (startMargin == 0) {
@@ -194,6 +299,78 @@ public abstract class AutoTrader {
     }
 
     protected Snapshot buildSnapshot() {
+        return applyMarketData(buildSnapshotFromPage());
+    }
+
+    /**
+     * ループで判断に使うSnapshotを取得する
+     * 専用スレッドで取得している場合は最新のものを受け取る(Rateの時刻は取得した時点のままとする)
+     */
+    protected Snapshot takeSnapshot() {
+        if (Objects.isNull(snapshotReader)) {
+            return buildSnapshot();
+        }
+        return applyMarketData(snapshotReader.takeLatest());
+    }
+
+    /**
+     * 専用スレッドでSnapshotを取得する
+     * Rateの時刻は判断時刻ではなく取得した時点の時刻とし、判断時刻との差から経過時間を分かるようにする
+     */
+    protected Snapshot readSnapshot() {
+        Snapshot snapshot = buildSnapshotFromPage();
+        snapshot.getRate().setTimestamp(clock.current());
+        return snapshot;
+    }
+
+    /**
+     * Rateを差し替える場合は複製を返す(専用スレッドから受け取ったSnapshotは変更しない)
+     */
+    protected Snapshot applyMarketData(Snapshot snapshot) {
+        if (Objects.nonNull(marketDataSource)) {
+            Rate latestRate = marketDataSource.getLatest(snapshot.getPair());
+            if (Objects.nonNull(latestRate)) {
+                return snapshot.toBuilder().rate(latestRate).build();
+            }
+        }
+        return snapshot;
+    }
+
+    protected Snapshot buildSnapshotFromPage() {
+        if (isScriptSnapshot) {
+            try {
+                return buildSnapshotFromScript();
+            } catch (WebDriverException | ApplicationException e) {
+                // スクリプトで取得できない場合は要素ごとの取得に切り替える
+                log.warn("snapshot script is failed, fall back to each element. {}", e.getMessage());
+            }
+        }
+        return buildSnapshotFromElements();
+    }
+
+    protected Snapshot buildSnapshotFromScript() {
+        Map<SnapshotField, String> fields = wrapper.readSnapshotFields();
+        CurrencyPair currentPair = CurrencyPair.valueOf(fields.get(SnapshotField.PAIR).replace("/", ""));
+        int margin = AutoTradeUtils.toInt(fields.get(SnapshotField.MARGIN));
+        return Snapshot.builder()
+                .pair(currentPair)
+                .askLot(AutoTradeUtils.toInt(fields.get(SnapshotField.ASK_LOT)))
+                .bidLot(AutoTradeUtils.toInt(fields.get(SnapshotField.BID_LOT)))
+                .askAverageRate(AutoTradeUtils.toInt(fields.get(SnapshotField.ASK_AVERAGE_RATE)))
+                .bidAverageRate(AutoTradeUtils.toInt(fields.get(SnapshotField.BID_AVERAGE_RATE)))
+                .margin(margin)
+                .effectiveMargin(AutoTradeUtils.toInt(fields.get(SnapshotField.EFFECTIVE_MARGIN)))
+                .todaysProfit(margin - startMargin)
+                .rate(Rate.builder()
+                        .pair(currentPair)
+                        .ask(AutoTradeUtils.toInt(fields.get(SnapshotField.ASK)))
+                        .bid(AutoTradeUtils.toInt(fields.get(SnapshotField.BID)))
+                        .timestamp(clock.now())
+                        .build())
+                .build();
+    }
+
+    protected Snapshot buildSnapshotFromElements() {
         return Snapshot.builder()
                 .pair(CurrencyPair.valueOf(wrapper.getPair().replace("/", "")))
                 .askLot(AutoTradeUtils.toInt(wrapper.getAskLot()))
@@ -223,7 +400,7 @@ public abstract class AutoTrader {
                 .pair(CurrencyPair.valueOf(wrapper.getPair().replace("/", "")))
                 .ask(ask)
                 .bid(bid)
-                .timestamp(LocalDateTime.now())
+                .timestamp(clock.now())
                 .build();
     }
     protected Rate buildRateFromList(CurrencyPair pair) {
@@ -231,7 +408,7 @@ public abstract class AutoTrader {
                 .pair(pair)
                 .ask(AutoTradeUtils.toInt(wrapper.getAskRateFromList(pair)))
                 .bid(AutoTradeUtils.toInt(wrapper.getBidRateFromList(pair)))
-                .timestamp(LocalDateTime.now())
+                .timestamp(clock.now())
                 .build();
     }
 
@@ -241,7 +418,7 @@ public abstract class AutoTrader {
 
     protected Rate buildLastDayBeforeRate() {
         String theDayBeforeDiff = driver.findElement(By.xpath("//*[@id=\"hl-div\"]/span[5]")).getText();
-        Rate lastDayBeforeRate = Rate.builder().pair(pair).ask(0).bid(0).timestamp(LocalDateTime.now()).build();
+        Rate lastDayBeforeRate = Rate.builder().pair(pair).ask(0).bid(0).timestamp(clock.now()).build();
         int lastDayBeforeBid = AutoTradeUtils.toInt(theDayBeforeDiff.substring(1));
         if ("▼".equals(theDayBeforeDiff.substring(0, 1))) {
             lastDayBeforeBid = lastDayBeforeBid * -1;
@@ -276,39 +453,115 @@ public abstract class AutoTrader {
     protected void postFix(Snapshot snapshot) {}
 
     protected void tradePreProcess(Snapshot snapshot) {
+        if (Objects.nonNull(marketDataSource)) {
+            // 受信済みのRateをrateAnalyzerに追加
+            addReceivedRates(marketDataSource.poll());
+            return;
+        }
+        if (feedMode == FeedMode.OBSERVER) {
+            // 画面で描画された価格変化のみrateAnalyzerに追加
+            addReceivedRates(wrapper.drainRateFeed());
+            return;
+        }
         // ペア別レート取得
         Map<CurrencyPair, Rate> pairRateMap = new HashMap<>();
         pairRateMap.put(pair, snapshot.getRate());
-        if (displayMode == DisplayMode.RATELIST
-                && LocalDateTime.now().getSecond() % 10 == 0) {
-            changeablePairs.stream()
-            .filter(p -> p != pair)
-            .forEach(p -> pairRateMap.put(p, buildRateFromList(p)));
+        if (displayMode == DisplayMode.RATELIST) {
+            // 取得時期となった通貨ペアがある場合のみ、レート一覧をまとめて取得
+            List<CurrencyPair> samplePairs = Stream.of(CurrencyPair.values())
+                    .filter(p -> p != pair)
+                    .filter(this::pollRateListSample)
+                    .collect(Collectors.toList());
+            if (!samplePairs.isEmpty()) {
+                Map<CurrencyPair, RateListRow> rows = wrapper.readRateList();
+                samplePairs.stream()
+                .filter(rows::containsKey)
+                .forEach(p -> pairRateMap.put(p, rows.get(p).toRate(clock.now())));
+            }
         }
         // rateAnalyzerにレート追加
-        pairRateMap.entrySet().stream().forEach(entry -> {
-            pairAnalyzerMap.get(entry.getKey()).add(entry.getValue());
-        });
+        pairRateMap.values().forEach(this::addRate);
+    }
+
+    /**
+     * 受信したRateをrateAnalyzerに追加する
+     * 判断時刻の確定後に記録されたRate(ブラウザ、配信元の時刻が判断時刻より後)は判断時刻に揃え、この回の判断に含める
+     */
+    protected void addReceivedRates(List<Rate> rates) {
+        long nowMillis = clock.millis();
+        rates.forEach(rate -> addRate(capTimestamp(rate, nowMillis)));
+        if (rates.stream().noneMatch(rate -> rate.getPair() == pair)) {
+            rateAnalyzer.addNoMove();
+        }
+    }
+
+    /**
+     * 受信したRateは他でも参照されるため、時刻を揃える場合は複製する
+     */
+    private Rate capTimestamp(Rate rate, long nowMillis) {
+        if (AutoTradeUtils.toEpochMilli(rate.getTimestamp()) <= nowMillis) {
+            return rate;
+        }
+        return Rate.builder()
+                .pair(rate.getPair())
+                .ask(rate.getAsk())
+                .bid(rate.getBid())
+                .timestamp(clock.now())
+                .build();
+    }
+
+    protected void addRate(Rate rate) {
+        pairAnalyzerMap.get(rate.getPair()).add(rate);
+        TickJournal journal = tickJournal;
+        if (Objects.isNull(journal)) {
+            return;
+        }
+        try {
+            journal.append(rate);
+        } catch (ApplicationException e) {
+            // 記録の失敗で取引を止めないよう、記録のみ停止する
+            log.error("tick journal is stopped.", e);
+            changeTickJournal(false);
+        }
+    }
+
+    /**
+     * 通貨ペアがレート一覧からの取得時期となっているか判定し、次回の取得時期を進める
+     * 等間隔を保つため前回の予定から進め、間隔以上遅れている場合は現在時刻から数え直す
+     */
+    protected boolean pollRateListSample(CurrencyPair pair) {
+        long now = clock.millis();
+        long next = nextRateListMillis.getOrDefault(pair, now);
+        if (now < next) {
+            return false;
+        }
+        long interval = rateListIntervals.get(pair).toMillis();
+        next += interval;
+        if (next <= now) {
+            next = now + interval;
+        }
+        nextRateListMillis.put(pair, next);
+        return true;
     }
 
     protected void tradePostProcess(Snapshot snapshot) {
 
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = clock.now();
 
         // 指標アラート
         if (indicatorManager.isNextIndicatorWithin(Duration.ofMinutes(1))
                 && !indicatorManager.isNextIndicatorWithin(Duration.ofSeconds(59))) {
             AutoTradeUtils.playAudioRandom(AudioPath.Alert);
-            AutoTradeUtils.sleep(Duration.ofSeconds(1));
+            clock.sleep(Duration.ofSeconds(1));
         }
 
         // 非活性時間処理
         if (isSleep(snapshot)) {
 
             // 非活性時間の終了までスリープする
-            Duration durationToActive = Duration.between(now, LocalDateTime.of(LocalDate.now(), inactiveEnd));
+            Duration durationToActive = Duration.between(now, LocalDateTime.of(clock.date(), inactiveEnd));
             log.info("application will sleep {} minutes, because of inactive time.", durationToActive.toMinutes());
-            AutoTradeUtils.sleep(durationToActive);
+            clock.sleep(durationToActive);
         }
 
         // 推奨通貨ペア自動選択
@@ -337,7 +590,7 @@ public abstract class AutoTrader {
                 && now.getMinute() == 0
                 && now.getSecond() < 1) {
             cloudSave();
-            AutoTradeUtils.sleep(Duration.ofSeconds(1));
+            clock.sleep(Duration.ofSeconds(1));
         }
 
     }
@@ -359,7 +612,7 @@ public abstract class AutoTrader {
         if (isThroughOrder) {
             return false;
         }
-        if (Duration.between(rateAnalyzer.getEarliestRate().getTimestamp(), LocalDateTime.now()).toMinutes() < 1) {
+        if (Duration.between(rateAnalyzer.getEarliestRate().getTimestamp(), clock.now()).toMinutes() < 1) {
             // 過去Rateがある程度存在しない場合は注文しない
             return false;
         }
@@ -422,7 +675,8 @@ public abstract class AutoTrader {
     }
 
     protected boolean isInactiveTime() {
-        return inactiveStart.isBefore(LocalTime.now()) && LocalTime.now().isBefore(inactiveEnd);
+        LocalTime now = clock.time();
+        return inactiveStart.isBefore(now) && now.isBefore(inactiveEnd);
     }
 
     protected boolean isCalm() {
@@ -431,64 +685,112 @@ public abstract class AutoTrader {
 
     protected void orderAsk(Snapshot snapshot) {
         int lot = lotManager.nextLot(snapshot);
-        orderAsk(lot);
+        orderAsk(lot, snapshot.getRate());
         AutoTradeUtils.printObject(snapshot);
     }
     protected void orderBid(Snapshot snapshot) {
         int lot = lotManager.nextLot(snapshot);
-        orderBid(lot);
+        orderBid(lot, snapshot.getRate());
         AutoTradeUtils.printObject(snapshot);
     }
     protected void orderAsk(int lot) {
-        String rate = wrapper.getAskRate();
-        int beforeLot = AutoTradeUtils.toInt(wrapper.getAskLot());
-        wrapper.setLot(lot);
-        wrapper.orderAsk();
-        verifyOrder(beforeLot + lot, Snapshot::getAskLot);
-        log.info("order ask. lot {}, rate {}", lot, rate);
+        orderAsk(lot, decisionRate);
     }
     protected void orderBid(int lot) {
-        String rate = wrapper.getBidRate();
-        int beforeLot = AutoTradeUtils.toInt(wrapper.getBidLot());
-        wrapper.setLot(lot);
+        orderBid(lot, decisionRate);
+    }
+    /**
+     * ログには判断に使ったRateを出力する(約定後に画面から読み直さない)
+     */
+    protected void orderAsk(int lot, Rate rate) {
+        int beforeLot;
+        if (isLotStaging && lotStager.use(lot)) {
+            // 事前入力済みのため発注のみ行う
+            beforeLot = lotStager.getAskLot();
+        } else {
+            beforeLot = AutoTradeUtils.toInt(wrapper.getAskLot());
+            wrapper.setLot(lot);
+        }
+        wrapper.orderAsk();
+        lotStager.invalidate();
+        orderConfirmer.confirm(OrderType.ORDER_ASK, () -> isAskLot(beforeLot + lot));
+        discardReadSnapshots();
+        log.info("order ask. lot {}, rate {}", lot, Objects.isNull(rate) ? null : rate.getAsk());
+    }
+    protected void orderBid(int lot, Rate rate) {
+        int beforeLot;
+        if (isLotStaging && lotStager.use(lot)) {
+            // 事前入力済みのため発注のみ行う
+            beforeLot = lotStager.getBidLot();
+        } else {
+            beforeLot = AutoTradeUtils.toInt(wrapper.getBidLot());
+            wrapper.setLot(lot);
+        }
         wrapper.orderBid();
-        verifyOrder(beforeLot + lot, Snapshot::getBidLot);
-        log.info("order bid. lot {}, rate {}", lot, rate);
+        lotStager.invalidate();
+        orderConfirmer.confirm(OrderType.ORDER_BID, () -> isBidLot(beforeLot + lot));
+        discardReadSnapshots();
+        log.info("order bid. lot {}, rate {}", lot, Objects.isNull(rate) ? null : rate.getBid());
+    }
+
+    /**
+     * ポジションが変わった場合、次に発注するLotを注文数量欄に入力しておく
+     */
+    protected void stageLot(Snapshot snapshot) {
+        if (!isLotStaging || !lotStager.needsStaging(snapshot)) {
+            return;
+        }
+        int lot = stagingLot(snapshot);
+        wrapper.setLot(lot);
+        lotStager.stage(snapshot, lot);
+    }
+
+    /**
+     * @return 事前入力するLot(独自に数量を決める戦略は上書きすること)
+     */
+    protected int stagingLot(Snapshot snapshot) {
+        return lotManager.nextLot(snapshot);
     }
     protected void fixAll(Snapshot snapshot) {
         wrapper.fixAll();
+        lotStager.invalidate();
         AutoTradeUtils.playAudioRandom(AudioPath.FixSoundEffect);
-        verifyOrder(0, Snapshot::getAskLot);
-        verifyOrder(0, Snapshot::getBidLot);
-        lastFixed = System.currentTimeMillis();
+        orderConfirmer.confirm(OrderType.FIX_ALL, () -> isAskLot(0) && isBidLot(0));
+        discardReadSnapshots();
+        lastFixed = clock.millis();
         log.info("fix all position.");
         AutoTradeUtils.printObject(snapshot);
     }
     protected void fixAsk(Snapshot snapshot) {
         wrapper.fixAsk();
-        verifyOrder(0, Snapshot::getAskLot);
+        lotStager.invalidate();
+        orderConfirmer.confirm(OrderType.FIX_ASK, () -> isAskLot(0));
+        discardReadSnapshots();
         log.info("fix ask position.");
         AutoTradeUtils.printObject(snapshot);
     }
     protected void fixBid(Snapshot snapshot) {
         wrapper.fixBid();
-        verifyOrder(0, Snapshot::getBidLot);
+        lotStager.invalidate();
+        orderConfirmer.confirm(OrderType.FIX_BID, () -> isBidLot(0));
+        discardReadSnapshots();
         log.info("fix bid position.");
         AutoTradeUtils.printObject(snapshot);
     }
-    protected void verifyOrder(int lot, ToIntFunction<Snapshot> lotAfterOrder) {
-        long verifyStarted = System.currentTimeMillis();
-        while (true) {
-            AutoTradeUtils.sleep(Duration.ofMillis(500));
-            Snapshot snapshot = buildSnapshot();
-            if (lot == lotAfterOrder.applyAsInt(snapshot)) {
-                break;
-            }
-            if (System.currentTimeMillis() - verifyStarted > Duration.ofSeconds(10).toMillis()) {
-                throw new ApplicationException("verify is failed.");
-            }
+    /**
+     * 注文、通貨ペア変更の前に取得を開始したSnapshotを判断に使わない
+     */
+    protected void discardReadSnapshots() {
+        if (Objects.nonNull(snapshotReader)) {
+            snapshotReader.discardStale();
         }
     }
+    protected boolean isAskLot(int lot) {
+        return AutoTradeUtils.toInt(wrapper.getAskLot()) == lot;
+    }
+    protected boolean isBidLot(int lot) {
+        return AutoTradeUtils.toInt(wrapper.getBidLot()) == lot;
+    }
     protected void changeDisplay(DisplayMode displayMode) {
         this.displayMode = displayMode;
         switch (displayMode) {
@@ -517,6 +819,8 @@ public abstract class AutoTrader {
         wrapper.changePair(this.pair.getDescription());
         this.changeDisplay(this.displayMode);
         this.rateAnalyzer = this.pairAnalyzerMap.get(this.pair);
+        discardReadSnapshots();
+        lotStager.invalidate();
         this.lotManager.changePair(pair, AutoTradeUtils.toInt(wrapper.getEffectiveMargin()));
         log.info("currency pair is changed to {}.", this.pair.getDescription());
     }
@@ -545,6 +849,66 @@ public abstract class AutoTrader {
         this.isIgnoreSpread = flag;
         log.info("ignore spread setting is set {}.", this.isIgnoreSpread);
     }
+    protected void changeLotStaging(boolean flag) {
+        this.isLotStaging = flag;
+        lotStager.invalidate();
+        log.info("lot staging setting is set {}.", this.isLotStaging);
+    }
+    protected void changeTickJournal(boolean flag) {
+        if (Objects.nonNull(tickJournal)) {
+            tickJournal.close();
+        }
+        this.tickJournal = flag ? new TickJournal() : null;
+        log.info("tick journal setting is set {}.", flag);
+    }
+    protected void startSnapshotReader() {
+        stopSnapshotReader();
+        snapshotReader = new SnapshotReader(this::readSnapshot);
+        snapshotReader.start();
+    }
+    protected void stopSnapshotReader() {
+        if (Objects.nonNull(snapshotReader)) {
+            snapshotReader.stop();
+            snapshotReader = null;
+        }
+    }
+    protected void changeSnapshotReader(boolean flag) {
+        this.isSnapshotReader = flag;
+        if (flag) {
+            startSnapshotReader();
+        } else {
+            stopSnapshotReader();
+        }
+        log.info("snapshot reader setting is set {}.", this.isSnapshotReader);
+    }
+    protected void changeMarketDataSource(MarketDataSource marketDataSource) {
+        if (Objects.nonNull(this.marketDataSource)) {
+            this.marketDataSource.close();
+        }
+        this.marketDataSource = marketDataSource;
+        if (Objects.nonNull(marketDataSource)) {
+            marketDataSource.start();
+            log.info("market data source is changed to {}.", marketDataSource.getClass().getSimpleName());
+        } else {
+            log.info("market data source is changed to page.");
+        }
+    }
+    protected void changeRateListInterval(CurrencyPair pair, Duration interval) {
+        rateListIntervals.put(pair, interval);
+        nextRateListMillis.remove(pair);
+        log.info("rate list interval of {} is set {}ms.", pair.getDescription(), interval.toMillis());
+    }
+    protected void changeFeedMode(FeedMode feedMode) {
+        this.feedMode = feedMode;
+        if (feedMode == FeedMode.OBSERVER) {
+            wrapper.installRateFeed();
+        }
+        log.info("feed mode is changed to {}.", this.feedMode);
+    }
+    protected void changeScriptSnapshot(boolean flag) {
+        this.isScriptSnapshot = flag;
+        log.info("script snapshot setting is set {}.", this.isScriptSnapshot);
+    }
     protected void changeAutoRecommended(boolean flag) {
         this.isAutoRecommended = flag;
         log.info("auto recommended setting is set {}.", this.isAutoRecommended);
@@ -581,8 +945,8 @@ public abstract class AutoTrader {
     protected void resetSame() {
         Snapshot snapshot = buildSnapshot();
         fixAll(snapshot);
-        orderAsk(lotManager.getLimit());
-        orderBid(lotManager.getLimit());
+        orderAsk(lotManager.getLimit(), snapshot.getRate());
+        orderBid(lotManager.getLimit(), snapshot.getRate());
     }
 
     protected MessageListener customizeMessageListener() {
@@ -637,6 +1001,71 @@ public abstract class AutoTrader {
                     }
                 })
                 .putCommand(ReservedMessage.SAVECOUNTERTRADINGTHRESHOLD, (args) -> rateAnalyzer.updateCountertrading(rateAnalyzer.getAskThreshold(), rateAnalyzer.getBidThreshold()))
+                .putCommand(ReservedMessage.SCRIPTSNAPSHOT, (args) -> {
+                    if (args.length > 0) {
+                        this.changeScriptSnapshot(Boolean.valueOf(args[0]));
+                    }
+                })
+                .putCommand(ReservedMessage.LOTSTAGING, (args) -> {
+                    if (args.length > 0) {
+                        this.changeLotStaging(Boolean.valueOf(args[0]));
+                    }
+                })
+                .putCommand(ReservedMessage.LOTSTAGINGREPORT, (args) -> Messenger.set(ReservedMessage.LOTSTAGINGREPORT.name(), lotStager.getReport()))
+                .putCommand(ReservedMessage.TICKJOURNAL, (args) -> {
+                    if (args.length > 0) {
+                        this.changeTickJournal(Boolean.valueOf(args[0]));
+                    }
+                })
+                .putCommand(ReservedMessage.SNAPSHOTREADER, (args) -> {
+                    if (args.length > 0) {
+                        this.changeSnapshotReader(Boolean.valueOf(args[0]));
+                    }
+                })
+                .putCommand(ReservedMessage.SNAPSHOTREADERREPORT, (args) -> {
+                    SnapshotReader reader = snapshotReader;
+                    Messenger.set(ReservedMessage.SNAPSHOTREADERREPORT.name(), Objects.isNull(reader) ? "snapshot reader is not running." : reader.getReport());
+                })
+                .putCommand(ReservedMessage.TICKREPORT, (args) -> Messenger.set(ReservedMessage.TICKREPORT.name(), tickScheduler.getReport()))
+                .putCommand(ReservedMessage.TICKINTERVAL, (args) -> {
+                    if (args.length > 0) {
+                        if (AutoTradeUtils.isInt(args[0])) {
+                            tickScheduler.changeTargetInterval(Duration.ofMillis(Integer.parseInt(args[0])));
+                        }
+                    }
+                })
+                .putCommand(ReservedMessage.ORDERLATENCY, (args) -> Messenger.set(ReservedMessage.ORDERLATENCY.name(), orderConfirmer.getLatencyReport()))
+                .putCommand(ReservedMessage.LOCATORREPORT, (args) -> Messenger.set(ReservedMessage.LOCATORREPORT.name(), wrapper.getLocatorReport()))
+                .putCommand(ReservedMessage.RATELISTINTERVAL, (args) -> {
+                    if (args.length > 1) {
+                        if (AutoTradeUtils.isInt(args[1])) {
+                            this.changeRateListInterval(CurrencyPair.valueOf(args[0]), Duration.ofMillis(Integer.parseInt(args[1])));
+                        }
+                    }
+                })
+                .putCommand(ReservedMessage.MARKETDATA, (args) -> {
+                    if (args.length > 0) {
+                        switch (args[0].toUpperCase()) {
+                        case "PAGE":
+                            this.changeMarketDataSource(null);
+                            break;
+                        case "SELENIUM":
+                            this.changeMarketDataSource(new SeleniumMarketDataSource(() -> wrapper, clock));
+                            break;
+                        case "SOCKET":
+                            if (args.length > 2 && AutoTradeUtils.isInt(args[2])) {
+                                this.changeMarketDataSource(new SocketMarketDataSource(args[1], Integer.parseInt(args[2])));
+                            }
+                            break;
+                        default:
+                        }
+                    }
+                })
+                .putCommand(ReservedMessage.FEEDMODE, (args) -> {
+                    if (args.length > 0) {
+                        this.changeFeedMode(FeedMode.valueOf(args[0].toUpperCase()));
+                    }
+                })
                 .putCommand(ReservedMessage.CHANGEPAIR, (args) -> {
                     if (args.length > 0) {
                         this.changePair(CurrencyPair.valueOf(args[0]));
@@ -3,7 +3,6 @@ package autotrade.local.autotrader.impl;
 import java.math.BigDecimal;
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.Scanner;
 
 import autotrade.local.actor.MessageListener;
 import autotrade.local.actor.RecoveryManager;
@@ -38,19 +37,15 @@ public class AutoTrader13th extends AutoTrader {
         shortDuration = Duration.ofSeconds(30);
         longDuration = Duration.ofSeconds(600);
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshot);
-                shortOrderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "shortOrderDirection")));
-                longOrderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "longOrderDirection")));
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshot);
+            shortOrderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "shortOrderDirection")));
+            longOrderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "longOrderDirection")));
+        }
 
         //シャットダウンフックでローカルセーブ
-        Runtime.getRuntime().addShutdownHook(new Thread(
+        AutoTradeUtils.addShutdownHook(new Thread(
             () -> {
                 AutoTradeUtils.localSave(Paths.get("localSave", "snapshotWhenRecoveryStart"), recoveryManager.getSnapshotWhenStart());
                 AutoTradeUtils.localSave(Paths.get("localSave", "shortOrderDirection"), shortOrderDirection.name());
@@ -5,7 +5,6 @@ import java.time.Duration;
 import java.util.AbstractMap;
 import java.util.Comparator;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -14,6 +13,7 @@ import autotrade.local.actor.RecoveryManager;
 import autotrade.local.autotrader.AutoTrader;
 import autotrade.local.material.CurrencyPair;
 import autotrade.local.material.Rate;
+import autotrade.local.material.RateListRow;
 import autotrade.local.material.Snapshot;
 import autotrade.local.utility.AutoTradeProperties;
 import autotrade.local.utility.AutoTradeUtils;
@@ -49,17 +49,13 @@ public class AutoTrader17th extends AutoTrader {
                 AutoTradeProperties.getInt("autoTrader17th.counter.duration.seconds"));
         orderDirection = OrderDirection.NONE;
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshot);
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshot);
+        }
 
         //シャットダウンフックでローカルセーブ
-        Runtime.getRuntime().addShutdownHook(new Thread(
+        AutoTradeUtils.addShutdownHook(new Thread(
             () -> {
                 AutoTradeUtils.localSave(Paths.get("localSave", "snapshotWhenRecoveryStart"), recoveryManager.getSnapshotWhenStart());
             }
@@ -79,9 +75,10 @@ public class AutoTrader17th extends AutoTrader {
 
     @Override
     protected void changeRecommended() {
+        Map<CurrencyPair, RateListRow> rows = wrapper.readRateList();
         CurrencyPair recommended = recommendedPairs.stream().map(pair ->{
             return new AbstractMap.SimpleEntry<CurrencyPair, Integer>(
-                    pair, Math.abs(AutoTradeUtils.toInt(wrapper.getRateDiffFromList(pair))));
+                    pair, rows.containsKey(pair) ? Math.abs(AutoTradeUtils.toInt(rows.get(pair).getRateDiff())) : 0);
         })
         .max(Comparator.comparingInt(Map.Entry::getValue))
         .get()
@@ -2,11 +2,9 @@ package autotrade.local.autotrader.impl;
 
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.AbstractMap;
 import java.util.Comparator;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -17,6 +15,7 @@ import autotrade.local.actor.RecoveryManager;
 import autotrade.local.autotrader.AutoTrader;
 import autotrade.local.material.CurrencyPair;
 import autotrade.local.material.Rate;
+import autotrade.local.material.RateListRow;
 import autotrade.local.material.Snapshot;
 import autotrade.local.utility.AutoTradeProperties;
 import autotrade.local.utility.AutoTradeUtils;
@@ -46,18 +45,13 @@ public class AutoTrader18th extends AutoTrader {
         counterDuration = Duration.ofSeconds(
                 AutoTradeProperties.getInt("autoTrader18th.counter.duration.seconds"));
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshot);
-            }
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshot);
         }
-        ;
 
         //シャットダウンフックでローカルセーブ
-        Runtime.getRuntime().addShutdownHook(new Thread(
+        AutoTradeUtils.addShutdownHook(new Thread(
                 () -> {
                     AutoTradeUtils.localSave(Paths.get("localSave", "snapshotWhenRecoveryStart"),
                             recoveryManager.getSnapshotWhenStart());
@@ -72,7 +66,7 @@ public class AutoTrader18th extends AutoTrader {
 
     private void updateLastDayBeforeRate() {
         String theDayBeforeDiff = driver.findElement(By.xpath("//*[@id=\"hl-div\"]/span[5]")).getText();
-        lastDayBeforeRate = Rate.builder().ask(0).bid(0).timestamp(LocalDateTime.now()).build();
+        lastDayBeforeRate = Rate.builder().ask(0).bid(0).timestamp(clock.now()).build();
         int lastDayBeforeBid = AutoTradeUtils.toInt(theDayBeforeDiff.substring(1));
         if ("▼".equals(theDayBeforeDiff.substring(0, 1))) {
             lastDayBeforeBid = lastDayBeforeBid * -1;
@@ -90,9 +84,10 @@ public class AutoTrader18th extends AutoTrader {
 
     @Override
     protected void changeRecommended() {
+        Map<CurrencyPair, RateListRow> rows = wrapper.readRateList();
         CurrencyPair recommended = recommendedPairs.stream().map(pair -> {
             return new AbstractMap.SimpleEntry<CurrencyPair, Integer>(
-                    pair, Math.abs(AutoTradeUtils.toInt(wrapper.getRateDiffFromList(pair))));
+                    pair, rows.containsKey(pair) ? Math.abs(AutoTradeUtils.toInt(rows.get(pair).getRateDiff())) : 0);
         })
                 .max(Comparator.comparingInt(Map.Entry::getValue))
                 .get()
@@ -5,7 +5,6 @@ import java.time.Duration;
 import java.util.AbstractMap;
 import java.util.Comparator;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -14,6 +13,7 @@ import autotrade.local.actor.RecoveryManager;
 import autotrade.local.autotrader.AutoTrader;
 import autotrade.local.material.CurrencyPair;
 import autotrade.local.material.Rate;
+import autotrade.local.material.RateListRow;
 import autotrade.local.material.Snapshot;
 import autotrade.local.utility.AutoTradeProperties;
 import autotrade.local.utility.AutoTradeUtils;
@@ -53,23 +53,18 @@ public class AutoTrader19th extends AutoTrader {
         lotLtInitial = AutoTradeProperties.getInt("autoTrader19th.order.lot.ltInitial");
         lotGeInitial = AutoTradeProperties.getInt("autoTrader19th.order.lot.geInitial");
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshotWhenRecoveryStart = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshotWhenRecoveryStart);
-                Snapshot counterTradingSnapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "counterTradingSnapshot"));
-                recoveryManager.setCounterTradingSnapshot(counterTradingSnapshot);
-                int threshold = AutoTradeUtils.localLoad(Paths.get("localSave", "dynamicThreshold"));
-                firstOrderRate = AutoTradeUtils.localLoad(Paths.get("localSave", "firstOrderRate"));
-                setDynamicThreshold(threshold);
-            }
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshotWhenRecoveryStart = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshotWhenRecoveryStart);
+            Snapshot counterTradingSnapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "counterTradingSnapshot"));
+            recoveryManager.setCounterTradingSnapshot(counterTradingSnapshot);
+            int threshold = AutoTradeUtils.localLoad(Paths.get("localSave", "dynamicThreshold"));
+            firstOrderRate = AutoTradeUtils.localLoad(Paths.get("localSave", "firstOrderRate"));
+            setDynamicThreshold(threshold);
         }
-        ;
 
         //シャットダウンフックでローカルセーブ
-        Runtime.getRuntime().addShutdownHook(new Thread(
+        AutoTradeUtils.addShutdownHook(new Thread(
                 () -> {
                     AutoTradeUtils.localSave(Paths.get("localSave", "snapshotWhenRecoveryStart"),
                             recoveryManager.getSnapshotWhenStart());
@@ -88,9 +83,10 @@ public class AutoTrader19th extends AutoTrader {
 
     @Override
     protected void changeRecommended() {
+        Map<CurrencyPair, RateListRow> rows = wrapper.readRateList();
         CurrencyPair recommended = recommendedPairs.stream().map(pair -> {
             return new AbstractMap.SimpleEntry<CurrencyPair, Integer>(
-                    pair, Math.abs(AutoTradeUtils.toInt(wrapper.getRateDiffFromList(pair))));
+                    pair, rows.containsKey(pair) ? Math.abs(AutoTradeUtils.toInt(rows.get(pair).getRateDiff())) : 0);
         })
                 .max(Comparator.comparingInt(Map.Entry::getValue))
                 .get()
@@ -98,6 +94,11 @@ public class AutoTrader19th extends AutoTrader {
         this.changePair(recommended);
     }
 
+    @Override
+    protected int stagingLot(Snapshot snapshot) {
+        return nextLot(snapshot);
+    }
+
     private int nextLot(Snapshot snapshot) {
         int initialLot = snapshot.getMargin() / 100000;
         if (initialLot <= snapshot.getMoreLot()) {
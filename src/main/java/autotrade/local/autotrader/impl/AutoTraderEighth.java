@@ -2,7 +2,6 @@ package autotrade.local.autotrader.impl;
 
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.Scanner;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -30,15 +29,11 @@ public class AutoTraderEighth extends AutoTrader {
                         Duration.ofSeconds(
                                 AutoTradeProperties.getInt("autoTraderEighth.rateAnalizer.threshold.seconds")));
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                recoveryManager.open(AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart")));
-                log.info("loaded snapshot when recovery start to RecoveryManager {}.", recoveryManager.getSnapshotWhenStart());
-                recoveryManager.setCounterTradingSnapshot(null);
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            recoveryManager.open(AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart")));
+            log.info("loaded snapshot when recovery start to RecoveryManager {}.", recoveryManager.getSnapshotWhenStart());
+            recoveryManager.setCounterTradingSnapshot(null);
+        }
     }
 
     @Override
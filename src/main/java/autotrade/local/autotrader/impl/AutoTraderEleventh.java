@@ -3,7 +3,6 @@ package autotrade.local.autotrader.impl;
 import java.math.BigDecimal;
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.Scanner;
 
 import autotrade.local.actor.MessageListener;
 import autotrade.local.actor.MessageListener.ReservedMessage;
@@ -47,19 +46,15 @@ public class AutoTraderEleventh extends AutoTrader {
         orderDirection = OrderDirection.NONE;
         orderTerm = Term.SHORT;
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshot);
-                orderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "orderDirection")));
-                orderTerm = Term.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "orderTerm")));
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshot);
+            orderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "orderDirection")));
+            orderTerm = Term.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "orderTerm")));
+        }
 
         //シャットダウンフックでローカルセーブ
-        Runtime.getRuntime().addShutdownHook(new Thread(
+        AutoTradeUtils.addShutdownHook(new Thread(
             () -> {
                 AutoTradeUtils.localSave(Paths.get("localSave", "snapshotWhenRecoveryStart"), recoveryManager.getSnapshotWhenStart());
                 AutoTradeUtils.localSave(Paths.get("localSave", "orderDirection"), orderDirection.name());
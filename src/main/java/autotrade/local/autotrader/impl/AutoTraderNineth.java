@@ -2,7 +2,6 @@ package autotrade.local.autotrader.impl;
 
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.Scanner;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -32,14 +31,10 @@ public class AutoTraderNineth extends AutoTrader {
                                 AutoTradeProperties.getInt("autoTraderNineth.rateAnalizer.threshold.seconds")));
         fixDuration = Duration.ofSeconds(AutoTradeProperties.getInt("autoTraderNineth.fix.duration.seconds"));
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshot);
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshot);
+        }
     }
 
     @Override
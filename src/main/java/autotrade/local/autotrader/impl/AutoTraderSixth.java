@@ -2,7 +2,6 @@ package autotrade.local.autotrader.impl;
 
 import java.time.Duration;
 import java.util.Base64;
-import java.util.Scanner;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -48,13 +47,9 @@ public class AutoTraderSixth extends AutoTrader {
                         Duration.ofSeconds(
                                 AutoTradeProperties.getInt("autoTraderSixth.rateAnalizer.threshold.seconds")));
 
-        System.out.print("do you need cloud load? (y or any) :");
-        try (Scanner scanner = new Scanner(System.in)) {
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                cloudLoad();
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need cloud load?")) {
+            cloudLoad();
+        }
     }
 
     @Override
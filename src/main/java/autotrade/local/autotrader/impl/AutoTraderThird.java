@@ -2,7 +2,6 @@ package autotrade.local.autotrader.impl;
 
 import java.time.Duration;
 import java.util.Base64;
-import java.util.Scanner;
 
 import autotrade.local.actor.Messenger;
 import autotrade.local.actor.RecoveryManager;
@@ -26,13 +25,9 @@ public class AutoTraderThird extends AutoTrader {
         super();
         recoveryManager = new RecoveryManager();
 
-        System.out.print("do you need cloud load? (y or any) :");
-        try (Scanner scanner = new Scanner(System.in)) {
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                cloudLoad();
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need cloud load?")) {
+            cloudLoad();
+        }
     }
 
     @Override
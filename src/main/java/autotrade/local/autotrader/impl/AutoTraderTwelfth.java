@@ -2,7 +2,6 @@ package autotrade.local.autotrader.impl;
 
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.Scanner;
 
 import autotrade.local.actor.MessageListener;
 import autotrade.local.actor.MessageListener.ReservedMessage;
@@ -32,18 +31,14 @@ public class AutoTraderTwelfth extends AutoTrader {
         });
         lastOrderDirection = OrderDirection.NONE;
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.print("do you need local load? (y or any) :");
-            String input = scanner.next();
-            if ("y".equals(input.toLowerCase())) {
-                Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
-                recoveryManager.open(snapshot);
-                lastOrderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "lastOrderDirection")));
-            }
-        };
+        if (AutoTradeUtils.confirm("do you need local load?")) {
+            Snapshot snapshot = AutoTradeUtils.localLoad(Paths.get("localSave", "snapshotWhenRecoveryStart"));
+            recoveryManager.open(snapshot);
+            lastOrderDirection = OrderDirection.valueOf(AutoTradeUtils.localLoad(Paths.get("localSave", "lastOrderDirection")));
+        }
 
         //シャットダウンフックでローカルセーブ
-        Runtime.getRuntime().addShutdownHook(new Thread(
+        AutoTradeUtils.addShutdownHook(new Thread(
             () -> {
                 AutoTradeUtils.localSave(Paths.get("localSave", "snapshotWhenRecoveryStart"), recoveryManager.getSnapshotWhenStart());
                 AutoTradeUtils.localSave(Paths.get("localSave", "lastOrderDirection"), lastOrderDirection.name());
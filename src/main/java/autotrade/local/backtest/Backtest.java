@@ -0,0 +1,192 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import autotrade.local.autotrader.AutoTrader;
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.OrderType;
+import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.TickClock;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 記録済みのRateを再生し、AutoTraderの実装をそのまま動かして評価する
+ * 画面はSimulatedBrokerに置き換え、時刻はRateのtimestampで進める
+ *
+ * 本番のループと同様に、選択中の通貨ペアのRateごとにoperateTick()を1回実行する
+ * 初期処理中、スリープ中に進んだ時刻より前のRateは判断に使わない(本番でも取得されないため)
+ * 例外が発生した場合は本番と同様に初期処理からやり直す
+ * 約定の遅延、滑りはExecutionModelで指定する(約定確認の待機はTickClockの時刻を進める)
+ * 本番のRedis等を使わないよう、呼び出し側で事前にAutoTradeUtils.offline()を設定すること
+ */
+@Slf4j
+public class Backtest {
+
+    private static final long DEFAULT_MARGIN = 1_000_000;
+    private static final Duration DEFAULT_EQUITY_INTERVAL = Duration.ofMinutes(1);
+    // staticな状態を持つため、同じJVMで並列にバックテストしない実装
+    // (SameManagerを使うAutoTraderFirst、enumに直前の状態を持つAutoTraderSixth)
+    static final Set<String> SHARED_STATE_IMPLEMENTATIONS = Set.of(
+            "autotrade.local.autotrader.impl.AutoTraderFirst",
+            "autotrade.local.autotrader.impl.AutoTraderSixth");
+
+    private String implementation;
+    private TickData ticks;
+    @Setter
+    private long initialMargin;
+    // 資産曲線を記録する間隔
+    @Setter
+    private Duration equityInterval;
+    @Setter
+    private List<LocalDateTime> indicators;
+    @Setter
+    private ExecutionModel executionModel;
+
+    public Backtest(String implementation, TickData ticks) {
+        if (!AutoTradeUtils.isOffline()) {
+            throw new ApplicationException("backtest requires offline mode.");
+        }
+        this.implementation = implementation;
+        this.ticks = ticks;
+        this.initialMargin = DEFAULT_MARGIN;
+        this.equityInterval = DEFAULT_EQUITY_INTERVAL;
+        this.indicators = List.of();
+        this.executionModel = ExecutionModel.immediate();
+    }
+
+    public BacktestResult run() {
+        return run(newTrader(implementation));
+    }
+
+    /**
+     * 生成済みのAutoTraderで実行する
+     * 実行後はAutoTraderを参照しないため、呼び出し側が保持しなければ解放される
+     */
+    BacktestResult run(AutoTrader trader) {
+        if (ticks.isEmpty()) {
+            throw new ApplicationException("tick data is empty.");
+        }
+        long started = System.nanoTime();
+
+        SimulatedBroker broker = new SimulatedBroker(initialMargin, executionModel);
+        // 初期処理の時点で全通貨ペアの価格が表示されている状態にする
+        for (CurrencyPair pair : CurrencyPair.values()) {
+            int index = ticks.firstIndex(pair);
+            if (index >= 0) {
+                broker.update(pair, ticks.ask(index), ticks.bid(index), ticks.epochMillis(index));
+            }
+        }
+
+        trader.simulate(
+                () -> new SimulatedWebDriver(broker),
+                driver -> new SimulatedWebDriverWrapper(broker, indicators),
+                AutoTradeUtils.toLocalDateTime(ticks.startMillis()));
+        TickClock clock = trader.getClock();
+        // 約定確認の待機で進んだ時刻にも約定させる
+        broker.setClock(clock::millis);
+
+        long stepCount = 0;
+        long restartCount = 0;
+        long peak = initialMargin;
+        long maxDrawdown = 0;
+        long nextEquityMillis = ticks.startMillis();
+        List<EquityPoint> equityCurve = new ArrayList<>();
+        long limitMillis = 0;
+        boolean isAtLimit = false;
+        long lastMillis = ticks.startMillis();
+        boolean isOpen = false;
+        for (int i = 0; i < ticks.size(); i++) {
+            CurrencyPair pair = ticks.pair(i);
+            long millis = ticks.epochMillis(i);
+            if (isAtLimit) {
+                limitMillis += millis - lastMillis;
+            }
+            lastMillis = millis;
+            broker.update(pair, ticks.ask(i), ticks.bid(i), millis);
+            if (millis < clock.millis() || pair != broker.getPair()) {
+                continue;
+            }
+            clock.set(AutoTradeUtils.toLocalDateTime(millis));
+            try {
+                if (isOpen) {
+                    trader.operateTick();
+                    stepCount++;
+                } else {
+                    trader.open();
+                    isOpen = true;
+                }
+            } catch (Exception e) {
+                log.warn("trader is restarted. {}", e.getMessage());
+                restartCount++;
+                trader.close();
+                isOpen = false;
+            }
+
+            long effectiveMargin = broker.getEffectiveMargin();
+            isAtLimit = isAtLimit(broker);
+            peak = Math.max(peak, effectiveMargin);
+            maxDrawdown = Math.max(maxDrawdown, peak - effectiveMargin);
+            if (millis >= nextEquityMillis) {
+                equityCurve.add(equityPoint(broker));
+                nextEquityMillis = millis + equityInterval.toMillis();
+            }
+        }
+        if (isOpen) {
+            trader.close();
+        }
+        equityCurve.add(equityPoint(broker));
+
+        return BacktestResult.builder()
+                .implementation(implementation)
+                .tickCount(ticks.size())
+                .stepCount(stepCount)
+                .restartCount(restartCount)
+                .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                .startMargin(initialMargin)
+                .finalMargin(broker.getMargin())
+                .finalEffectiveMargin(broker.getEffectiveMargin())
+                .maxDrawdown(maxDrawdown)
+                .limitMillis(limitMillis)
+                .rejectedCount(broker.getRejectedCount())
+                .fixCount(broker.getFills().stream().filter(fill -> isFix(fill.getOrderType())).count())
+                .fills(broker.getFills())
+                .equityCurve(equityCurve)
+                .build();
+    }
+
+    /**
+     * AutoTraderを生成する
+     * オフラインモードのため、起動時のローカルロード確認は行わず、シャットダウンフックも登録されない
+     */
+    static AutoTrader newTrader(String implementation) {
+        return AutoTradeUtils.newInstance(implementation);
+    }
+
+    private static boolean isFix(OrderType orderType) {
+        return orderType == OrderType.FIX_ALL || orderType == OrderType.FIX_ASK || orderType == OrderType.FIX_BID;
+    }
+
+    /**
+     * 選択中の通貨ペアの建玉がいずれかの売買で上限(Snapshot#isAskLtLimit等と同じ判定)に達しているか
+     */
+    private static boolean isAtLimit(SimulatedBroker broker) {
+        int limitLot = broker.getLimitLot();
+        return broker.getAskLot() >= limitLot || broker.getBidLot() >= limitLot;
+    }
+
+    private static EquityPoint equityPoint(SimulatedBroker broker) {
+        return EquityPoint.builder()
+                .timestamp(broker.getTimestamp())
+                .margin(broker.getMargin())
+                .effectiveMargin(broker.getEffectiveMargin())
+                .askLot(broker.getAskLot())
+                .bidLot(broker.getBidLot())
+                .build();
+    }
+}
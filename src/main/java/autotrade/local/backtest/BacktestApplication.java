@@ -0,0 +1,40 @@
+package autotrade.local.backtest;
+
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+import autotrade.local.utility.AutoTradeProperties;
+import autotrade.local.utility.AutoTradeUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TickJournalに記録したRateでAutoTraderの実装をバックテストする
+ *
+ * 引数:開始日(yyyy-MM-dd) [終了日] [AutoTraderの完全修飾クラス名(省略時はautotrade.implementation)]
+ * 約定履歴と資産曲線はbacktestディレクトリにCSVで出力する
+ */
+@Slf4j
+public class BacktestApplication {
+
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            log.error("usage: BacktestApplication from [to] [implementation]");
+            return;
+        }
+        // Redis、音声、ローカルセーブを使わない
+        AutoTradeUtils.offline();
+        LocalDate from = LocalDate.parse(args[0]);
+        LocalDate to = args.length > 1 ? LocalDate.parse(args[1]) : from;
+        String implementation = args.length > 2 ? args[2] : AutoTradeProperties.get("autotrade.implementation");
+
+        TickData ticks = TickData.load(Paths.get("journal"), from, to);
+        log.info("{} ticks are loaded.", ticks.size());
+
+        BacktestResult result = new Backtest(implementation, ticks).run();
+        log.info("{}", result.getSummary());
+        result.save(Paths.get("backtest"));
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package autotrade.local.backtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.OrderType;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * バックテストの結果(約定履歴と資産曲線、集計値)
+ */
+@Getter
+@Builder
+public class BacktestResult {
+
+    private String implementation;
+    private int tickCount;
+    // operateTick()を実行した回数
+    private long stepCount;
+    // 例外により初期処理からやり直した回数
+    private long restartCount;
+    private long elapsedMillis;
+    private long startMargin;
+    private long finalMargin;
+    private long finalEffectiveMargin;
+    // 有効証拠金の最大下落幅
+    private long maxDrawdown;
+    // 選択中の通貨ペアの建玉が上限に達していた時間
+    private long limitMillis;
+    private long fixCount;
+    // 証拠金不足で約定しなかった注文の数
+    private long rejectedCount;
+    private List<Fill> fills;
+    private List<EquityPoint> equityCurve;
+
+    public long getProfit() {
+        return finalMargin - startMargin;
+    }
+
+    /**
+     * @return 注文種別ごとの約定数
+     */
+    public long getCount(OrderType orderType) {
+        return fills.stream().filter(fill -> fill.getOrderType() == orderType).count();
+    }
+
+    public long getTicksPerSecond() {
+        return elapsedMillis == 0 ? tickCount : tickCount * 1000L / elapsedMillis;
+    }
+
+    public String getSummary() {
+        return MessageFormat.format(
+                "{0} profit {1} margin {2} effectiveMargin {3} maxDrawdown {4} fills {5} fixes {6} rejected {7} limit {8}s steps {9} restarts {10} ticks {11} ({12}ms, {13} ticks/s)",
+                implementation, String.valueOf(getProfit()), String.valueOf(finalMargin), String.valueOf(finalEffectiveMargin),
+                String.valueOf(maxDrawdown), fills.size(), String.valueOf(fixCount), String.valueOf(rejectedCount), String.valueOf(limitMillis / 1000), String.valueOf(stepCount),
+                String.valueOf(restartCount), tickCount, String.valueOf(elapsedMillis), String.valueOf(getTicksPerSecond()));
+    }
+
+    /**
+     * 約定履歴と資産曲線をCSVで出力する
+     */
+    public void save(Path directory) {
+        String name = implementation.substring(implementation.lastIndexOf('.') + 1);
+        List<String> fillLines = new ArrayList<>();
+        fillLines.add("timestamp,pair,orderType,lot,rate,slippage,latencyMillis,profit,margin");
+        fills.forEach(fill -> fillLines.add(String.join(",",
+                fill.getTimestamp().toString(), fill.getPair().name(), fill.getOrderType().name(),
+                String.valueOf(fill.getLot()), String.valueOf(fill.getRate()),
+                String.valueOf(fill.getSlippage()), String.valueOf(fill.getLatencyMillis()),
+                String.valueOf(fill.getProfit()), String.valueOf(fill.getMargin()))));
+        List<String> equityLines = new ArrayList<>();
+        equityLines.add("timestamp,margin,effectiveMargin,askLot,bidLot");
+        equityCurve.forEach(point -> equityLines.add(String.join(",",
+                point.getTimestamp().toString(), String.valueOf(point.getMargin()), String.valueOf(point.getEffectiveMargin()),
+                String.valueOf(point.getAskLot()), String.valueOf(point.getBidLot()))));
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(name + "-fills.csv"), fillLines);
+            Files.write(directory.resolve(name + "-equity.csv"), equityLines);
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package autotrade.local.backtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import autotrade.local.utility.AutoTradeUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TickJournalに記録したRateで、複数のAutoTraderの実装を並べてバックテストする
+ *
+ * 引数:開始日(yyyy-MM-dd) 終了日 AutoTraderの完全修飾クラス名...
+ * 実装ごとの約定履歴と資産曲線はbacktest/comparisonディレクトリにCSVで出力する
+ */
+@Slf4j
+public class ComparisonApplication {
+
+    public static void main(String[] args) {
+
+        if (args.length < 3) {
+            log.error("usage: ComparisonApplication from to implementation...");
+            return;
+        }
+        // Redis、音声、ローカルセーブを使わない
+        AutoTradeUtils.offline();
+        LocalDate from = LocalDate.parse(args[0]);
+        LocalDate to = LocalDate.parse(args[1]);
+        List<String> implementations = Arrays.asList(args).subList(2, args.length);
+
+        TickData ticks = TickData.load(Paths.get("journal"), from, to);
+        log.info("{} ticks are loaded.", ticks.size());
+
+        StrategyComparison comparison = new StrategyComparison(implementations, ticks);
+        List<BacktestResult> results = comparison.run();
+        log.info("\n{}", StrategyComparison.toTable(results));
+        comparison.getFailures().forEach((implementation, reason) -> log.warn("{} {}", implementation, reason));
+
+        Path directory = Paths.get("backtest", "comparison");
+        results.forEach(result -> result.save(directory));
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 資産曲線の1点
+ */
+@Data
+@Builder
+public class EquityPoint {
+
+    private LocalDateTime timestamp;
+    private long margin;
+    private long effectiveMargin;
+    private int askLot;
+    private int bidLot;
+}
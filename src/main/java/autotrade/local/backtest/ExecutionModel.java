@@ -0,0 +1,35 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * SimulatedBrokerの約定の仕方(発注から約定までの遅延、約定価格の滑り)
+ * 遅延は固定値に指数分布の揺らぎを加えたもの、滑りは確率slippageProbabilityで不利な方向に1〜maxSlippageの一様分布とする
+ * 乱数はseedから作るため、同じseedであれば同じ約定となる
+ */
+@Data
+@Builder
+public class ExecutionModel {
+
+    @Builder.Default
+    private Duration latency = Duration.ZERO;
+    // 遅延に加える揺らぎの平均
+    @Builder.Default
+    private Duration latencyJitter = Duration.ZERO;
+    @Builder.Default
+    private double slippageProbability = 0;
+    @Builder.Default
+    private int maxSlippage = 0;
+    @Builder.Default
+    private long seed = 1;
+
+    /**
+     * @return 発注と同時に表示中の価格で約定する
+     */
+    public static ExecutionModel immediate() {
+        return builder().build();
+    }
+}
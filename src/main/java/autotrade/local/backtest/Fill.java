@@ -0,0 +1,30 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDateTime;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.OrderType;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * SimulatedBrokerで約定した注文、決済
+ */
+@Data
+@Builder
+public class Fill {
+
+    private LocalDateTime timestamp;
+    private CurrencyPair pair;
+    private OrderType orderType;
+    private int lot;
+    private int rate;
+    // 発注時の表示価格からの不利な方向への滑り
+    private int slippage;
+    // 発注から約定までの時間
+    private long latencyMillis;
+    // 決済の場合の確定損益(円)
+    private long profit;
+    // 約定後の証拠金
+    private long margin;
+}
@@ -0,0 +1,194 @@
+package autotrade.local.backtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.utility.AutoTradeProperties;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 設定値の組み合わせ(グリッド)ごとにバックテストを行い、最終証拠金の順に並べる
+ * 各バックテストはForkJoinPoolで並列に実行し、TickDataは読み取り専用として全バックテストで共有する
+ * 設定値はバックテストを実行するスレッドでのみ上書きする(AutoTradeProperties#override)
+ *
+ * staticな状態を持つ実装(Backtest.SHARED_STATE_IMPLEMENTATIONS)は、parallelismに関わらず1つずつ実行する
+ * ただし、staticな状態は実行後も残るため、前の組み合わせの状態を引き継ぐ
+ * クラスの初期化時に読む設定値(AutoTraderEleventhのTerm等)は組み合わせごとに変えられないため、グリッドに含めた場合は例外とする
+ */
+@Slf4j
+public class ParameterSweep {
+
+    // クラスの初期化時に読むため、上書きしても反映されない設定値(実装ごとのキーの接頭辞)
+    private static final Map<String, List<String>> CLASS_INIT_PROPERTIES = Map.of(
+            "autotrade.local.autotrader.impl.AutoTraderEleventh", List.of("autoTraderEleventh.order.direction.duration.seconds."));
+
+    private String implementation;
+    private TickData ticks;
+    private Map<String, List<Object>> grid;
+    @Setter
+    private int parallelism;
+    @Setter
+    private long initialMargin;
+
+    public ParameterSweep(String implementation, TickData ticks, Map<String, List<Object>> grid) {
+        for (String prefix : CLASS_INIT_PROPERTIES.getOrDefault(implementation, List.of())) {
+            grid.keySet().stream()
+                    .filter(key -> key.startsWith(prefix))
+                    .findFirst()
+                    .ifPresent(key -> {
+                        throw new ApplicationException(key + " is read once when " + implementation + " is initialized.");
+                    });
+        }
+        this.implementation = implementation;
+        this.ticks = ticks;
+        this.grid = grid;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.initialMargin = 1_000_000;
+    }
+
+    /**
+     * @return 最終証拠金の降順(同値の場合は最大下落幅の昇順)に並べた結果
+     */
+    public List<SweepResult> run() {
+        List<Map<String, Object>> combinations = combinations(grid);
+        int poolSize = parallelism;
+        if (Backtest.SHARED_STATE_IMPLEMENTATIONS.contains(implementation) && poolSize > 1) {
+            log.warn("{} has static state, so parallelism {} is changed to 1.", implementation, poolSize);
+            poolSize = 1;
+        }
+        log.info("{} combinations are started with parallelism {}.", combinations.size(), poolSize);
+        ForkJoinPool pool = new ForkJoinPool(poolSize);
+        List<SweepResult> results;
+        try {
+            results = pool.invoke(new SweepTask(combinations, 0, combinations.size()));
+        } finally {
+            pool.shutdown();
+        }
+        results.sort(Comparator.comparingLong((SweepResult r) -> r.getResult().getFinalMargin()).reversed()
+                .thenComparingLong(r -> r.getResult().getMaxDrawdown()));
+        return results;
+    }
+
+    /**
+     * @return グリッドの直積(キーの順序はグリッドの順序)
+     */
+    static List<Map<String, Object>> combinations(Map<String, List<Object>> grid) {
+        List<Map<String, Object>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<Object>> entry : grid.entrySet()) {
+            List<Map<String, Object>> expanded = new ArrayList<>();
+            for (Map<String, Object> combination : combinations) {
+                for (Object value : entry.getValue()) {
+                    Map<String, Object> next = new LinkedHashMap<>(combination);
+                    next.put(entry.getKey(), value);
+                    expanded.add(next);
+                }
+            }
+            combinations = expanded;
+        }
+        return combinations;
+    }
+
+    /**
+     * @return 順位付きの結果一覧
+     */
+    public static String toTable(List<SweepResult> results) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%4s %12s %12s %10s %6s %9s  %s", "rank", "finalMargin", "profit", "drawdown", "fixes", "limit(s)", "overrides"));
+        for (int i = 0; i < results.size(); i++) {
+            BacktestResult result = results.get(i).getResult();
+            table.append("\n").append(String.format("%4d %12d %12d %10d %6d %9d  %s",
+                    i + 1, result.getFinalMargin(), result.getProfit(), result.getMaxDrawdown(),
+                    result.getFixCount(), result.getLimitMillis() / 1000, results.get(i).getOverrides()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * 順位付きの結果をCSVで出力する(設定値はグリッドのキーごとの列とする)
+     */
+    public static void save(List<SweepResult> results, Path file) {
+        List<String> keys = results.isEmpty() ? List.of() : new ArrayList<>(results.get(0).getOverrides().keySet());
+        List<String> lines = new ArrayList<>();
+        List<String> header = new ArrayList<>(List.of("rank", "finalMargin", "profit", "maxDrawdown", "fixes", "limitMillis", "restarts"));
+        header.addAll(keys);
+        lines.add(String.join(",", header));
+        for (int i = 0; i < results.size(); i++) {
+            SweepResult sweepResult = results.get(i);
+            BacktestResult result = sweepResult.getResult();
+            List<String> columns = new ArrayList<>(List.of(
+                    String.valueOf(i + 1), String.valueOf(result.getFinalMargin()), String.valueOf(result.getProfit()),
+                    String.valueOf(result.getMaxDrawdown()), String.valueOf(result.getFixCount()),
+                    String.valueOf(result.getLimitMillis()), String.valueOf(result.getRestartCount())));
+            columns.addAll(keys.stream().map(key -> String.valueOf(sweepResult.getOverrides().get(key))).collect(Collectors.toList()));
+            lines.add(String.join(",", columns));
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, lines);
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    private SweepResult runOne(Map<String, Object> overrides) {
+        Map<String, Object> previous = AutoTradeProperties.override(overrides);
+        try {
+            Backtest backtest = new Backtest(implementation, ticks);
+            backtest.setInitialMargin(initialMargin);
+            BacktestResult result = backtest.run();
+            log.info("{} {}", overrides, result.getSummary());
+            return SweepResult.builder().overrides(overrides).result(result).build();
+        } finally {
+            AutoTradeProperties.restore(previous);
+        }
+    }
+
+    /**
+     * [from, to)の組み合わせを半分ずつに分けて実行する
+     */
+    private class SweepTask extends RecursiveTask<List<SweepResult>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private List<Map<String, Object>> combinations;
+        private int from;
+        private int to;
+
+        SweepTask(List<Map<String, Object>> combinations, int from, int to) {
+            this.combinations = combinations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SweepResult> compute() {
+            if (to - from <= 1) {
+                List<SweepResult> results = new ArrayList<>();
+                if (from < to) {
+                    results.add(runOne(combinations.get(from)));
+                }
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            SweepTask left = new SweepTask(combinations, from, middle);
+            left.fork();
+            List<SweepResult> results = new SweepTask(combinations, middle, to).compute();
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+}
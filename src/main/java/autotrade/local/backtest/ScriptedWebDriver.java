@@ -0,0 +1,373 @@
+package autotrade.local.backtest;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.utility.Locator;
+
+/**
+ * 取引画面の代わりに、SimulatedBrokerの状態を画面と同じ形式の文字列で返すWebDriver
+ * WebDriverWrapper(要素ごとの参照、スナップショット取得スクリプト、レート一覧スクリプト)をそのまま動かすために使う
+ *
+ * 価格は小数点付き(JPYは3桁、その他は5桁)で3つの要素に分けて、証拠金はカンマ区切り、Lotは「　(0)」付きで返す
+ * 要素はXPath(またはid)ごとに同じものを返し、値は参照の都度SimulatedBrokerから取得する
+ * 発注、決済ボタンのクリック、数量欄への入力はSimulatedBrokerの操作に置き換え、その他の要素の操作は何もしない
+ */
+public class ScriptedWebDriver implements WebDriver, JavascriptExecutor {
+
+    private static final String WINDOW_HANDLE = "scripted";
+    private static final String CHANGE_PAIR_PREFIX = "//div[contains(text(),";
+
+    private SimulatedBroker broker;
+    private Map<String, ScriptedWebElement> elements;
+    // 数量欄に入力中の文字列
+    private StringBuilder lotInput;
+
+    public ScriptedWebDriver(SimulatedBroker broker) {
+        this.broker = broker;
+        this.elements = new HashMap<>();
+        this.lotInput = new StringBuilder();
+        text(Locator.PAIR, () -> broker.getPair().getDescription());
+        text(Locator.MARGIN, () -> String.format("%,d", broker.getMargin()));
+        text(Locator.EFFECTIVE_MARGIN, () -> String.format("%,d", broker.getEffectiveMargin()));
+        text(Locator.ASK_LOT, () -> broker.getAskLot() + "　(0)");
+        text(Locator.BID_LOT, () -> broker.getBidLot() + "　(0)");
+        text(Locator.ASK_AVERAGE_RATE, () -> formatRate(broker.getPair(), broker.getAskAverageRate()));
+        text(Locator.BID_AVERAGE_RATE, () -> formatRate(broker.getPair(), broker.getBidAverageRate()));
+        text(Locator.ASK_PIP_PROFIT, () -> broker.getAskLot() == 0 ? "" : String.valueOf(broker.getBid(broker.getPair()) - broker.getAskAverageRate()));
+        text(Locator.BID_PIP_PROFIT, () -> broker.getBidLot() == 0 ? "" : String.valueOf(broker.getBidAverageRate() - broker.getAsk(broker.getPair())));
+        text(Locator.ASK1, () -> ratePart(broker.getAsk(broker.getPair()), 0));
+        text(Locator.ASK2, () -> ratePart(broker.getAsk(broker.getPair()), 1));
+        text(Locator.ASK3, () -> ratePart(broker.getAsk(broker.getPair()), 2));
+        text(Locator.BID1, () -> ratePart(broker.getBid(broker.getPair()), 0));
+        text(Locator.BID2, () -> ratePart(broker.getBid(broker.getPair()), 1));
+        text(Locator.BID3, () -> ratePart(broker.getBid(broker.getPair()), 2));
+        action(Locator.ORDER_ASK, broker::orderAsk);
+        action(Locator.ORDER_BID, broker::orderBid);
+        action(Locator.FIX_ALL, broker::fixAll);
+        action(Locator.FIX_ASK, broker::fixAsk);
+        action(Locator.FIX_BID, broker::fixBid);
+        ScriptedWebElement lot = new ScriptedWebElement(() -> "", () -> {}, this::inputLot);
+        lot.attributes.put("value", () -> String.valueOf(broker.getLot()));
+        put(Locator.LOT, lot);
+    }
+
+    /**
+     * @return 画面と同じ形式の価格(小数点付き)
+     */
+    static String formatRate(CurrencyPair pair, int rate) {
+        if (rate == 0) {
+            return "";
+        }
+        int scale = pair.name().endsWith("JPY") ? 3 : 5;
+        StringBuilder text = new StringBuilder(String.valueOf(rate));
+        while (text.length() <= scale) {
+            text.insert(0, '0');
+        }
+        return text.insert(text.length() - scale, '.').toString();
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        String key = key(by);
+        ScriptedWebElement element = elements.get(key);
+        if (element != null) {
+            return element;
+        }
+        if (key.contains("hl-div")) {
+            // 前日比は「▲0.123」の形式
+            element = new ScriptedWebElement(() -> {
+                int diff = broker.getBid(broker.getPair()) - broker.getOpenBid(broker.getPair());
+                return (diff < 0 ? "▼" : "▲") + Math.abs(diff);
+            }, () -> {}, keys -> {});
+        } else if (key.startsWith(CHANGE_PAIR_PREFIX)) {
+            CurrencyPair pair = CurrencyPair.valueOf(key.replaceAll("[^A-Z]", ""));
+            element = new ScriptedWebElement(pair::getDescription, () -> broker.changePair(pair), keys -> {});
+        } else {
+            element = new ScriptedWebElement(() -> "", () -> {}, keys -> {});
+        }
+        elements.put(key, element);
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return List.of();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        if (args.length == 1 && args[0] instanceof Map) {
+            return readFields((Map<?, ?>) args[0]);
+        }
+        if (script.contains("rate_diff")) {
+            return readRateList();
+        }
+        if (script.contains("feed.buffer = []")) {
+            // 価格変化の記録は行わない
+            return List.of();
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return executeScript(script, args);
+    }
+
+    @Override
+    public void get(String url) {}
+
+    @Override
+    public String getCurrentUrl() {
+        return null;
+    }
+
+    @Override
+    public String getTitle() {
+        return null;
+    }
+
+    @Override
+    public String getPageSource() {
+        return null;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void quit() {}
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Set.of(WINDOW_HANDLE);
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return WINDOW_HANDLE;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * スナップショット取得スクリプトと同じく、項目ごとのXPathのテキストを連結して返す(存在しない項目はnull)
+     */
+    private Map<String, String> readFields(Map<?, ?> fields) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<?, ?> entry : fields.entrySet()) {
+            StringBuilder text = new StringBuilder();
+            for (Object xpath : (List<?>) entry.getValue()) {
+                ScriptedWebElement element = elements.get(xpath.toString());
+                if (element == null) {
+                    text = null;
+                    break;
+                }
+                text.append(element.getText().trim());
+            }
+            result.put(entry.getKey().toString(), text == null ? null : text.toString());
+        }
+        return result;
+    }
+
+    /**
+     * レート一覧スクリプトと同じく、価格を受け取った通貨ペアの行を返す
+     */
+    private List<Map<String, String>> readRateList() {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (CurrencyPair pair : CurrencyPair.values()) {
+            if (!broker.hasRate(pair)) {
+                continue;
+            }
+            int diff = broker.getBid(pair) - broker.getOpenBid(pair);
+            Map<String, String> row = new LinkedHashMap<>();
+            row.put("pair", pair.name());
+            row.put("ask", formatRate(pair, broker.getAsk(pair)));
+            row.put("bid", formatRate(pair, broker.getBid(pair)));
+            row.put("diff", (diff < 0 ? "-" : "+") + formatRate(pair, Math.abs(diff)));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 価格を「150.」「00」「3」のように3つの要素に分けた文字列
+     */
+    private String ratePart(int rate, int part) {
+        String text = formatRate(broker.getPair(), rate);
+        if (text.length() < 3) {
+            return part == 0 ? text : "";
+        }
+        switch (part) {
+        case 0:
+            return text.substring(0, text.length() - 3);
+        case 1:
+            return text.substring(text.length() - 3, text.length() - 1);
+        default:
+            return text.substring(text.length() - 1);
+        }
+    }
+
+    private void inputLot(CharSequence keys) {
+        String text = keys.toString();
+        if (text.contains(Keys.CONTROL)) {
+            // 全選択の後の入力で置き換える
+            lotInput.setLength(0);
+            return;
+        }
+        lotInput.append(text);
+        broker.setLot(Integer.parseInt(lotInput.toString()));
+    }
+
+    private void text(Locator locator, Supplier<String> text) {
+        put(locator, new ScriptedWebElement(text, () -> {}, keys -> {}));
+    }
+
+    private void action(Locator locator, Runnable click) {
+        put(locator, new ScriptedWebElement(() -> "", click, keys -> {}));
+    }
+
+    private void put(Locator locator, ScriptedWebElement element) {
+        elements.put(locator.getXpath(), element);
+    }
+
+    private static String key(By by) {
+        String text = by.toString();
+        return text.substring(text.indexOf(": ") + 2);
+    }
+
+    /**
+     * 参照の都度テキストを取得し、クリック、入力を置き換えた処理に渡す要素
+     */
+    static class ScriptedWebElement implements WebElement {
+
+        private Supplier<String> text;
+        private Runnable click;
+        private Consumer<CharSequence> input;
+        private Map<String, Supplier<String>> attributes;
+
+        ScriptedWebElement(Supplier<String> text, Runnable click, Consumer<CharSequence> input) {
+            this.text = text;
+            this.click = click;
+            this.input = input;
+            this.attributes = new HashMap<>();
+        }
+
+        @Override
+        public String getText() {
+            return text.get();
+        }
+
+        @Override
+        public void click() {
+            click.run();
+        }
+
+        @Override
+        public void submit() {}
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+            for (CharSequence keys : keysToSend) {
+                input.accept(keys);
+            }
+        }
+
+        @Override
+        public void clear() {}
+
+        @Override
+        public String getTagName() {
+            return "div";
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            Supplier<String> attribute = attributes.get(name);
+            return attribute == null ? null : attribute.get();
+        }
+
+        @Override
+        public boolean isSelected() {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return List.of();
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            throw new NoSuchElementException(MessageFormat.format("{0} is not found.", by));
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            return true;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(0, 0);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(0, 0, 0, 0);
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return null;
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
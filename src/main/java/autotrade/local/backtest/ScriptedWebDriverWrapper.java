@@ -0,0 +1,36 @@
+package autotrade.local.backtest;
+
+import java.text.MessageFormat;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import autotrade.local.utility.WebDriverWrapper;
+
+/**
+ * ScriptedWebDriverを操作するWebDriverWrapper
+ * 画面の参照、発注、決済は本番と同じ処理で行い、ログイン、ツール起動、通貨ペア切替の実時間の待機のみ省く
+ * ScriptedWebDriverの要素は再描画されないため、通貨ペア切替後も特定済みの要素をそのまま使う
+ */
+public class ScriptedWebDriverWrapper extends WebDriverWrapper {
+
+    private WebDriver driver;
+
+    public ScriptedWebDriverWrapper(WebDriver driver) {
+        super(driver);
+        this.driver = driver;
+    }
+
+    @Override
+    public void login() {}
+    @Override
+    public void startUpTradeTool() {}
+    @Override
+    public void pairSettings() {}
+
+    @Override
+    public void changePair(String pair) {
+        driver.findElement(By.xpath(MessageFormat.format("//div[contains(text(),\"{0}\")]", pair))).click();
+        orderSettings();
+    }
+}
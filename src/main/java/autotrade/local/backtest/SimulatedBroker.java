@@ -0,0 +1,431 @@
+package autotrade.local.backtest;
+
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.OrderType;
+import autotrade.local.utility.AutoTradeUtils;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 取引画面の代わりに注文を約定させ、ポジション、証拠金を管理する
+ * 通貨ペアごとに最新のask、bidを保持し、注文は画面で選択中の通貨ペアに対して行う
+ *
+ * 注文はExecutionModelの遅延の後、その時点の価格に滑りを加えて約定する(約定するまで画面のLotは変わらない)
+ * 約定は発注順に行い、時刻は最後に受け取ったRateの時刻とclockの新しい方で判断する
+ * ポジションは約定ごとに保持し、決済は画面の全決済と同様に、約定時点で保有している片側(fixAllは両側)をすべて古い順に決済する
+ * 新規注文は、必要証拠金(通貨ペアごとに買い、売りの多い方のLot * marginRequirement)が有効証拠金を超える場合は約定しない
+ *
+ * 損益は価格の最小単位(toIntした値の1)、1Lotあたりの円換算額(pointValue)で計算する
+ */
+@Slf4j
+public class SimulatedBroker {
+
+    private static final int JPY_POINT_VALUE = 10;
+    private static final int OTHER_POINT_VALUE = 15;
+
+    private int[] asks;
+    private int[] bids;
+    // 最初に受け取ったbid(前日比の基準とする)
+    private int[] openBids;
+    private boolean[] hasRates;
+    private int[] pointValues;
+    private Position[] positions;
+    private long epochMillis;
+
+    private ExecutionModel executionModel;
+    private Random random;
+    private ArrayDeque<Order> pendingOrders;
+    // 約定の判断に使う現在時刻(Rateを受け取らずに進む時刻、約定確認の待機など)
+    @Setter
+    private LongSupplier clock;
+
+    @Getter
+    private CurrencyPair pair;
+    // 注文数量欄に入力されている数量
+    @Getter
+    private int lot;
+    private long margin;
+    private List<Fill> fills;
+    // 証拠金不足で約定しなかった注文の数
+    @Getter
+    private long rejectedCount;
+
+    /**
+     * 1回の約定分のポジション
+     */
+    private static class Entry {
+        private int lot;
+        private int rate;
+
+        private Entry(int lot, int rate) {
+            this.lot = lot;
+            this.rate = rate;
+        }
+    }
+
+    /**
+     * 通貨ペアごとのポジション(買い、売りそれぞれの約定順の一覧と、数量、約定価格の合計)
+     */
+    private static class Position {
+        private ArrayDeque<Entry> askEntries = new ArrayDeque<>();
+        private ArrayDeque<Entry> bidEntries = new ArrayDeque<>();
+        private int askLot;
+        private int bidLot;
+        private long askAmount;
+        private long bidAmount;
+    }
+
+    /**
+     * 約定待ちの注文
+     */
+    private static class Order {
+        private OrderType orderType;
+        private CurrencyPair pair;
+        private int lot;
+        private long orderedMillis;
+        private long filledMillis;
+        private int slippage;
+    }
+
+    public SimulatedBroker(long margin) {
+        this(margin, ExecutionModel.immediate());
+    }
+
+    public SimulatedBroker(long margin, ExecutionModel executionModel) {
+        int size = CurrencyPair.values().length;
+        asks = new int[size];
+        bids = new int[size];
+        openBids = new int[size];
+        hasRates = new boolean[size];
+        pointValues = new int[size];
+        positions = new Position[size];
+        for (CurrencyPair currencyPair : CurrencyPair.values()) {
+            pointValues[currencyPair.ordinal()] = currencyPair.name().endsWith("JPY") ? JPY_POINT_VALUE : OTHER_POINT_VALUE;
+            positions[currencyPair.ordinal()] = new Position();
+        }
+        this.executionModel = executionModel;
+        this.random = new Random(executionModel.getSeed());
+        this.pendingOrders = new ArrayDeque<>();
+        this.clock = () -> Long.MIN_VALUE;
+        this.pair = CurrencyPair.USDJPY;
+        this.margin = margin;
+        this.fills = new ArrayList<>();
+    }
+
+    public void update(CurrencyPair currencyPair, int ask, int bid, long epochMillis) {
+        int index = currencyPair.ordinal();
+        if (!hasRates[index]) {
+            hasRates[index] = true;
+            openBids[index] = bid;
+        }
+        asks[index] = ask;
+        bids[index] = bid;
+        this.epochMillis = epochMillis;
+        settle();
+    }
+
+    public void changePair(CurrencyPair pair) {
+        this.pair = pair;
+    }
+
+    public void setLot(int lot) {
+        this.lot = lot;
+    }
+
+    public void setPointValue(CurrencyPair currencyPair, int pointValue) {
+        pointValues[currencyPair.ordinal()] = pointValue;
+    }
+
+    public void orderAsk() {
+        request(OrderType.ORDER_ASK);
+    }
+
+    public void orderBid() {
+        request(OrderType.ORDER_BID);
+    }
+
+    public void fixAll() {
+        request(OrderType.FIX_ALL);
+    }
+
+    public void fixAsk() {
+        request(OrderType.FIX_ASK);
+    }
+
+    public void fixBid() {
+        request(OrderType.FIX_BID);
+    }
+
+    public int getAsk(CurrencyPair currencyPair) {
+        return asks[currencyPair.ordinal()];
+    }
+
+    public int getBid(CurrencyPair currencyPair) {
+        return bids[currencyPair.ordinal()];
+    }
+
+    public int getOpenBid(CurrencyPair currencyPair) {
+        return openBids[currencyPair.ordinal()];
+    }
+
+    public boolean hasRate(CurrencyPair currencyPair) {
+        return hasRates[currencyPair.ordinal()];
+    }
+
+    public int getAskLot() {
+        settle();
+        return position().askLot;
+    }
+
+    public int getBidLot() {
+        settle();
+        return position().bidLot;
+    }
+
+    public int getAskAverageRate() {
+        settle();
+        Position position = position();
+        return position.askLot == 0 ? 0 : (int) Math.round((double) position.askAmount / position.askLot);
+    }
+
+    public int getBidAverageRate() {
+        settle();
+        Position position = position();
+        return position.bidLot == 0 ? 0 : (int) Math.round((double) position.bidAmount / position.bidLot);
+    }
+
+    public long getMargin() {
+        settle();
+        return margin;
+    }
+
+    /**
+     * @return 証拠金に全通貨ペアの評価損益を加えた額
+     */
+    public long getEffectiveMargin() {
+        settle();
+        return effectiveMargin();
+    }
+
+    /**
+     * @return 全通貨ペアの必要証拠金
+     */
+    public long getRequiredMargin() {
+        settle();
+        return requiredMargin(null, 0, 0);
+    }
+
+    /**
+     * @return 選択中の通貨ペアの片側で保有できるLot(Snapshotの上限判定と同じ値)
+     */
+    public int getLimitLot() {
+        settle();
+        return pair.getLimitLot((int) Math.min(margin, effectiveMargin()));
+    }
+
+    public List<Fill> getFills() {
+        settle();
+        return fills;
+    }
+
+    public int getPendingCount() {
+        return pendingOrders.size();
+    }
+
+    public LocalDateTime getTimestamp() {
+        return AutoTradeUtils.toLocalDateTime(epochMillis);
+    }
+
+    private Position position() {
+        return positions[pair.ordinal()];
+    }
+
+    /**
+     * 選択中の通貨ペアに注文を出す(価格を受け取っていない場合は発注できない)
+     */
+    private void request(OrderType orderType) {
+        if (!hasRate(pair)) {
+            throw new ApplicationException(MessageFormat.format("{0} has no rate.", pair));
+        }
+        Order order = new Order();
+        order.orderType = orderType;
+        order.pair = pair;
+        order.lot = lot;
+        order.orderedMillis = now();
+        order.filledMillis = order.orderedMillis + latencyMillis();
+        order.slippage = slippage();
+        pendingOrders.add(order);
+        settle();
+    }
+
+    /**
+     * 約定時刻を過ぎた注文を発注順に約定させる
+     */
+    private void settle() {
+        long now = now();
+        while (!pendingOrders.isEmpty() && pendingOrders.peek().filledMillis <= now) {
+            execute(pendingOrders.poll());
+        }
+    }
+
+    private long now() {
+        return Math.max(epochMillis, clock.getAsLong());
+    }
+
+    private void execute(Order order) {
+        CurrencyPair currencyPair = order.pair;
+        Position position = positions[currencyPair.ordinal()];
+        int ask = getAsk(currencyPair) + order.slippage;
+        int bid = getBid(currencyPair) - order.slippage;
+        switch (order.orderType) {
+        case ORDER_ASK:
+            if (isShortOfMargin(currencyPair, position.askLot + order.lot, position.bidLot, order)) {
+                return;
+            }
+            position.askEntries.add(new Entry(order.lot, ask));
+            position.askLot += order.lot;
+            position.askAmount += (long) ask * order.lot;
+            addFill(order, order.lot, ask, 0);
+            break;
+        case ORDER_BID:
+            if (isShortOfMargin(currencyPair, position.askLot, position.bidLot + order.lot, order)) {
+                return;
+            }
+            position.bidEntries.add(new Entry(order.lot, bid));
+            position.bidLot += order.lot;
+            position.bidAmount += (long) bid * order.lot;
+            addFill(order, order.lot, bid, 0);
+            break;
+        case FIX_ALL:
+            int lot = position.askLot + position.bidLot;
+            if (lot > 0) {
+                long profit = closeAsk(currencyPair, position, bid) + closeBid(currencyPair, position, ask);
+                addFill(order, lot, bid, profit);
+            }
+            break;
+        case FIX_ASK:
+            if (position.askLot > 0) {
+                int askLot = position.askLot;
+                addFill(order, askLot, bid, closeAsk(currencyPair, position, bid));
+            }
+            break;
+        case FIX_BID:
+            if (position.bidLot > 0) {
+                int bidLot = position.bidLot;
+                addFill(order, bidLot, ask, closeBid(currencyPair, position, ask));
+            }
+            break;
+        default:
+            throw new ApplicationException(MessageFormat.format("{0} is not supported.", order.orderType));
+        }
+    }
+
+    private boolean isShortOfMargin(CurrencyPair currencyPair, int askLot, int bidLot, Order order) {
+        long requiredMargin = requiredMargin(currencyPair, askLot, bidLot);
+        long effectiveMargin = effectiveMargin();
+        if (requiredMargin <= effectiveMargin) {
+            return false;
+        }
+        rejectedCount++;
+        log.info("{} {} lot {} is rejected. required margin {}, effective margin {}",
+                order.orderType, currencyPair, order.lot, requiredMargin, effectiveMargin);
+        return true;
+    }
+
+    /**
+     * @return 全通貨ペアの必要証拠金(targetのみ指定したLotに置き換える)
+     */
+    private long requiredMargin(CurrencyPair target, int askLot, int bidLot) {
+        long requiredMargin = 0;
+        for (CurrencyPair currencyPair : CurrencyPair.values()) {
+            Position position = positions[currencyPair.ordinal()];
+            int lot = currencyPair == target
+                    ? Math.max(askLot, bidLot)
+                    : Math.max(position.askLot, position.bidLot);
+            if (lot > 0) {
+                requiredMargin += (long) lot * currencyPair.getMarginRequirement();
+            }
+        }
+        return requiredMargin;
+    }
+
+    private long effectiveMargin() {
+        long effectiveMargin = margin;
+        for (CurrencyPair currencyPair : CurrencyPair.values()) {
+            Position position = positions[currencyPair.ordinal()];
+            if (position.askLot == 0 && position.bidLot == 0) {
+                continue;
+            }
+            int pointValue = pointValues[currencyPair.ordinal()];
+            effectiveMargin += ((long) getBid(currencyPair) * position.askLot - position.askAmount) * pointValue;
+            effectiveMargin += (position.bidAmount - (long) getAsk(currencyPair) * position.bidLot) * pointValue;
+        }
+        return effectiveMargin;
+    }
+
+    private long closeAsk(CurrencyPair currencyPair, Position position, int rate) {
+        long profit = 0;
+        while (!position.askEntries.isEmpty()) {
+            Entry entry = position.askEntries.poll();
+            profit += (long) (rate - entry.rate) * entry.lot * pointValues[currencyPair.ordinal()];
+        }
+        position.askLot = 0;
+        position.askAmount = 0;
+        margin += profit;
+        return profit;
+    }
+
+    private long closeBid(CurrencyPair currencyPair, Position position, int rate) {
+        long profit = 0;
+        while (!position.bidEntries.isEmpty()) {
+            Entry entry = position.bidEntries.poll();
+            profit += (long) (entry.rate - rate) * entry.lot * pointValues[currencyPair.ordinal()];
+        }
+        position.bidLot = 0;
+        position.bidAmount = 0;
+        margin += profit;
+        return profit;
+    }
+
+    private long latencyMillis() {
+        long latency = executionModel.getLatency().toMillis();
+        long jitter = executionModel.getLatencyJitter().toMillis();
+        if (jitter > 0) {
+            latency += (long) (-jitter * Math.log(1 - random.nextDouble()));
+        }
+        return latency;
+    }
+
+    private int slippage() {
+        if (executionModel.getMaxSlippage() <= 0 || random.nextDouble() >= executionModel.getSlippageProbability()) {
+            return 0;
+        }
+        return 1 + random.nextInt(executionModel.getMaxSlippage());
+    }
+
+    private void addFill(Order order, int lot, int rate, long profit) {
+        long filledMillis = order.filledMillis;
+        fills.add(Fill.builder()
+                .timestamp(AutoTradeUtils.toLocalDateTime(filledMillis))
+                .pair(order.pair)
+                .orderType(order.orderType)
+                .lot(lot)
+                .rate(rate)
+                .slippage(order.slippage)
+                .latencyMillis(filledMillis - order.orderedMillis)
+                .profit(profit)
+                .margin(margin)
+                .build());
+        log.debug("{} {} lot {} rate {} profit {}", order.orderType, order.pair, lot, rate, profit);
+    }
+}
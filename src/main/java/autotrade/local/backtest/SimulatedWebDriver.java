@@ -0,0 +1,181 @@
+package autotrade.local.backtest;
+
+import java.util.List;
+import java.util.Set;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * WebDriverWrapperを経由せず画面を参照する処理のためのWebDriver
+ * 前日比(hl-div)のみSimulatedBrokerから返し、その他の要素は存在しないものとする
+ */
+public class SimulatedWebDriver implements WebDriver {
+
+    private static final String WINDOW_HANDLE = "simulated";
+
+    private SimulatedBroker broker;
+
+    public SimulatedWebDriver(SimulatedBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        if (by.toString().contains("hl-div")) {
+            // 前日比は「▲0.123」の形式
+            int diff = broker.getBid(broker.getPair()) - broker.getOpenBid(broker.getPair());
+            return new SimulatedWebElement((diff < 0 ? "▼" : "▲") + Math.abs(diff));
+        }
+        throw new NoSuchElementException(by.toString());
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return List.of();
+    }
+
+    @Override
+    public void get(String url) {}
+
+    @Override
+    public String getCurrentUrl() {
+        return null;
+    }
+
+    @Override
+    public String getTitle() {
+        return null;
+    }
+
+    @Override
+    public String getPageSource() {
+        return null;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void quit() {}
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Set.of(WINDOW_HANDLE);
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return WINDOW_HANDLE;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * テキストのみを持つ要素
+     */
+    static class SimulatedWebElement implements WebElement {
+
+        private String text;
+
+        SimulatedWebElement(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public void click() {}
+
+        @Override
+        public void submit() {}
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {}
+
+        @Override
+        public void clear() {}
+
+        @Override
+        public String getTagName() {
+            return "span";
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public boolean isSelected() {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return List.of();
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            throw new NoSuchElementException(by.toString());
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            return true;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(0, 0);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(0, 0, 0, 0);
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return null;
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.RateListRow;
+import autotrade.local.utility.SnapshotField;
+import autotrade.local.utility.WebDriverWrapper;
+
+/**
+ * 画面の代わりにSimulatedBrokerを参照、操作するWebDriverWrapper
+ * 画面の値はtoInt()で元の値に戻せる形式(区切り文字なしの整数)で返す
+ */
+public class SimulatedWebDriverWrapper extends WebDriverWrapper {
+
+    private SimulatedBroker broker;
+    private List<LocalDateTime> indicators;
+
+    public SimulatedWebDriverWrapper(SimulatedBroker broker, List<LocalDateTime> indicators) {
+        // 画面は使わない
+        super(null);
+        this.broker = broker;
+        this.indicators = indicators;
+    }
+
+    @Override
+    public List<LocalDateTime> getIndicators(LocalDate targetDate) {
+        return indicators.stream()
+                .filter(indicator -> indicator.toLocalDate().equals(targetDate))
+                .collect(Collectors.toList());
+    }
+    @Override
+    public void login() {}
+    @Override
+    public void cancelMessage() {}
+    @Override
+    public void startUpTradeTool() {}
+    @Override
+    public void orderSettings() {}
+    @Override
+    public void pairSettings() {}
+
+    @Override
+    public Map<SnapshotField, String> readSnapshotFields() {
+        Map<SnapshotField, String> fields = new EnumMap<>(SnapshotField.class);
+        fields.put(SnapshotField.PAIR, getPair());
+        fields.put(SnapshotField.ASK_LOT, getAskLot());
+        fields.put(SnapshotField.BID_LOT, getBidLot());
+        fields.put(SnapshotField.ASK_AVERAGE_RATE, getAskAverageRate());
+        fields.put(SnapshotField.BID_AVERAGE_RATE, getBidAverageRate());
+        fields.put(SnapshotField.MARGIN, getMargin());
+        fields.put(SnapshotField.EFFECTIVE_MARGIN, getEffectiveMargin());
+        fields.put(SnapshotField.ASK, getAskRate());
+        fields.put(SnapshotField.BID, getBidRate());
+        return fields;
+    }
+
+    @Override
+    public String getPair() {
+        return broker.getPair().getDescription();
+    }
+    @Override
+    public String getMargin() {
+        return String.valueOf(broker.getMargin());
+    }
+    @Override
+    public String getEffectiveMargin() {
+        return String.valueOf(broker.getEffectiveMargin());
+    }
+    @Override
+    public String getAskLot() {
+        return String.valueOf(broker.getAskLot());
+    }
+    @Override
+    public String getBidLot() {
+        return String.valueOf(broker.getBidLot());
+    }
+    @Override
+    public String getAskAverageRate() {
+        return String.valueOf(broker.getAskAverageRate());
+    }
+    @Override
+    public String getBidAverageRate() {
+        return String.valueOf(broker.getBidAverageRate());
+    }
+    @Override
+    public String getAskPipProfit() {
+        return String.valueOf(broker.getAskLot() == 0 ? 0 : broker.getBid(broker.getPair()) - broker.getAskAverageRate());
+    }
+    @Override
+    public String getBidPipProfit() {
+        return String.valueOf(broker.getBidLot() == 0 ? 0 : broker.getBidAverageRate() - broker.getAsk(broker.getPair()));
+    }
+    @Override
+    public String getAskRate() {
+        return String.valueOf(broker.getAsk(broker.getPair()));
+    }
+    @Override
+    public String getBidRate() {
+        return String.valueOf(broker.getBid(broker.getPair()));
+    }
+
+    @Override
+    public Map<CurrencyPair, RateListRow> readRateList() {
+        Map<CurrencyPair, RateListRow> rows = new EnumMap<>(CurrencyPair.class);
+        Stream.of(CurrencyPair.values())
+        .filter(broker::hasRate)
+        .forEach(pair -> rows.put(pair, RateListRow.builder()
+                .pair(pair)
+                .ask(broker.getAsk(pair))
+                .bid(broker.getBid(pair))
+                .rateDiff(getRateDiffFromList(pair))
+                .build()));
+        return rows;
+    }
+    @Override
+    public String getAskRateFromList(CurrencyPair pair) {
+        return String.valueOf(broker.getAsk(pair));
+    }
+    @Override
+    public String getBidRateFromList(CurrencyPair pair) {
+        return String.valueOf(broker.getBid(pair));
+    }
+    @Override
+    public String getRateDiffFromList(CurrencyPair pair) {
+        return String.valueOf(broker.getBid(pair) - broker.getOpenBid(pair));
+    }
+
+    @Override
+    public void setLot(int lot) {
+        broker.setLot(lot);
+    }
+    @Override
+    public void orderAsk() {
+        broker.orderAsk();
+    }
+    @Override
+    public void orderBid() {
+        broker.orderBid();
+    }
+    @Override
+    public void fixAll() {
+        broker.fixAll();
+    }
+    @Override
+    public void fixAsk() {
+        broker.fixAsk();
+    }
+    @Override
+    public void fixBid() {
+        broker.fixBid();
+    }
+    @Override
+    public void displayRateList() {}
+    @Override
+    public void displayChart() {}
+    @Override
+    public void changePair(String pair) {
+        broker.changePair(CurrencyPair.valueOf(pair.replace("/", "")));
+    }
+}
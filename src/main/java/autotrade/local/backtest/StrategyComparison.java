@@ -0,0 +1,118 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.OrderType;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 複数のAutoTraderの実装を同じRateの列でバックテストし、並べて比較する
+ * 実装ごとにSimulatedBroker(口座)を持ち、TickDataは読み取り専用として全実装で共有する
+ *
+ * 生成、初期処理ができない実装(コンストラクタで画面を操作するAutoTraderSecond等)は結果から除き、failuresに理由を残す
+ *
+ * 実装はparallelismの数まで並列に実行するが、staticな状態を持つ実装(SameManagerを使うAutoTraderFirst、
+ * enumに直前の状態を持つAutoTraderSixth)は専用の1スレッドで1つずつ実行する
+ * ただし、staticな状態は実行後も残るため、同じJVMで前に実行したバックテストの状態を引き継ぐ
+ * 実行済みのAutoTraderは保持しない(結果のみを保持する)
+ */
+@Slf4j
+public class StrategyComparison {
+
+    private List<String> implementations;
+    private TickData ticks;
+    @Setter
+    private int parallelism;
+    @Setter
+    private long initialMargin;
+    @Setter
+    private ExecutionModel executionModel;
+    @Setter
+    private List<LocalDateTime> indicators;
+    // 実装ごとの失敗理由
+    @Getter
+    private Map<String, String> failures;
+
+    public StrategyComparison(List<String> implementations, TickData ticks) {
+        this.implementations = implementations;
+        this.ticks = ticks;
+        this.parallelism = Math.min(implementations.size(), Runtime.getRuntime().availableProcessors());
+        this.initialMargin = 1_000_000;
+        this.executionModel = ExecutionModel.immediate();
+        this.indicators = List.of();
+        this.failures = new LinkedHashMap<>();
+    }
+
+    /**
+     * @return 損益の降順に並べた結果
+     */
+    public List<BacktestResult> run() {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(parallelism, 1));
+        ExecutorService sharedStateExecutor = Executors.newSingleThreadExecutor();
+        List<BacktestResult> results = new ArrayList<>();
+        try {
+            Map<String, Future<BacktestResult>> futures = new LinkedHashMap<>();
+            for (String implementation : implementations) {
+                ExecutorService target = Backtest.SHARED_STATE_IMPLEMENTATIONS.contains(implementation) ? sharedStateExecutor : executor;
+                futures.put(implementation, target.submit(() -> backtest(implementation)));
+            }
+            for (Map.Entry<String, Future<BacktestResult>> entry : futures.entrySet()) {
+                try {
+                    results.add(entry.getValue().get());
+                } catch (ExecutionException e) {
+                    log.warn("{} is failed. {}", entry.getKey(), e.getCause().toString());
+                    failures.put(entry.getKey(), e.getCause().toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ApplicationException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            sharedStateExecutor.shutdownNow();
+        }
+        results.sort(Comparator.comparingLong(BacktestResult::getProfit).reversed());
+        return results;
+    }
+
+    /**
+     * @return 順位付きの結果一覧(実装ごとの処理速度、判断回数、損益)
+     */
+    public static String toTable(List<BacktestResult> results) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%4s %-20s %10s %10s %10s %8s %8s %8s %6s %8s %8s",
+                "rank", "implementation", "profit", "drawdown", "ticks/s", "steps", "ask", "bid", "fixes", "rejected", "restarts"));
+        for (int i = 0; i < results.size(); i++) {
+            BacktestResult result = results.get(i);
+            String implementation = result.getImplementation();
+            table.append("\n").append(String.format("%4d %-20s %10d %10d %10d %8d %8d %8d %6d %8d %8d",
+                    i + 1, implementation.substring(implementation.lastIndexOf('.') + 1),
+                    result.getProfit(), result.getMaxDrawdown(), result.getTicksPerSecond(), result.getStepCount(),
+                    result.getCount(OrderType.ORDER_ASK), result.getCount(OrderType.ORDER_BID), result.getFixCount(),
+                    result.getRejectedCount(), result.getRestartCount()));
+        }
+        return table.toString();
+    }
+
+    private BacktestResult backtest(String implementation) {
+        Backtest backtest = new Backtest(implementation, ticks);
+        backtest.setInitialMargin(initialMargin);
+        backtest.setExecutionModel(executionModel);
+        backtest.setIndicators(indicators);
+        BacktestResult result = backtest.run();
+        log.info("{}", result.getSummary());
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package autotrade.local.backtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.yaml.snakeyaml.Yaml;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.utility.AutoTradeProperties;
+import autotrade.local.utility.AutoTradeUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TickJournalに記録したRateで、設定値の組み合わせごとにバックテストを行う
+ *
+ * 引数:グリッドのymlファイル 開始日(yyyy-MM-dd) [終了日]
+ * グリッドのymlファイルは以下を想定しています
+implementation: autotrade.local.autotrader.impl.AutoTrader19th (省略時はautotrade.implementation)
+parallelism: 8 (省略時はCPU数)
+grid:
+  autoTrader19th.rateAnalizer.threshold.seconds: [30, 60, 90]
+  autotrade.rateAnalizer.countertrading.ratio: [0.5, 0.7]
+ *
+ * 順位付きの結果はbacktest/sweep.csvに出力する
+ */
+@Slf4j
+public class SweepApplication {
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) {
+
+        if (args.length < 2) {
+            log.error("usage: SweepApplication grid.yml from [to]");
+            return;
+        }
+        // Redis、音声、ローカルセーブを使わない
+        AutoTradeUtils.offline();
+        Map<String, Object> config;
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            config = new Yaml().load(in);
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+        LocalDate from = LocalDate.parse(args[1]);
+        LocalDate to = args.length > 2 ? LocalDate.parse(args[2]) : from;
+        String implementation = config.containsKey("implementation")
+                ? config.get("implementation").toString()
+                : AutoTradeProperties.get("autotrade.implementation");
+
+        TickData ticks = TickData.load(Paths.get("journal"), from, to);
+        log.info("{} ticks are loaded.", ticks.size());
+
+        ParameterSweep sweep = new ParameterSweep(implementation, ticks, (Map<String, List<Object>>) config.get("grid"));
+        if (config.containsKey("parallelism")) {
+            sweep.setParallelism((int) config.get("parallelism"));
+        }
+        List<SweepResult> results = sweep.run();
+        log.info("\n{}", ParameterSweep.toTable(results));
+        ParameterSweep.save(results, Paths.get("backtest", "sweep.csv"));
+
+    }
+
+}
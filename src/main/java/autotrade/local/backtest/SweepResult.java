@@ -0,0 +1,19 @@
+package autotrade.local.backtest;
+
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * パラメータスイープの1組み合わせ分の結果
+ */
+@Data
+@Builder
+public class SweepResult {
+
+    // 上書きした設定値(キーはAutoTradePropertiesのドット区切りのキー)
+    private Map<String, Object> overrides;
+    private BacktestResult result;
+
+}
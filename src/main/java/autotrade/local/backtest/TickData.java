@@ -0,0 +1,177 @@
+package autotrade.local.backtest;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import autotrade.local.journal.TickJournalReader;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.AutoTradeUtils;
+
+/**
+ * バックテストで再生するRateの列(全通貨ペアを時刻順に統合したもの)
+ * プリミティブ配列で保持し、生成後は変更しないため、複数のバックテストで共有してよい
+ */
+public class TickData {
+
+    private static final CurrencyPair[] PAIRS = CurrencyPair.values();
+
+    private byte[] pairs;
+    private long[] epochMillis;
+    private int[] asks;
+    private int[] bids;
+
+    private TickData(int size) {
+        pairs = new byte[size];
+        epochMillis = new long[size];
+        asks = new int[size];
+        bids = new int[size];
+    }
+
+    /**
+     * TickJournalの[from, to]の日付のファイルを読み込む
+     */
+    public static TickData load(Path directory, LocalDate from, LocalDate to) {
+        List<TickData> pairTicks = new ArrayList<>();
+        for (CurrencyPair pair : PAIRS) {
+            List<TickJournalReader> readers = new ArrayList<>();
+            try {
+                for (Path path : TickJournalReader.list(directory, pair)) {
+                    TickJournalReader reader = new TickJournalReader(path);
+                    if (reader.getDate().isBefore(from) || reader.getDate().isAfter(to)) {
+                        reader.close();
+                        continue;
+                    }
+                    readers.add(reader);
+                }
+                pairTicks.add(read(pair, readers));
+            } finally {
+                readers.forEach(TickJournalReader::close);
+            }
+        }
+        return merge(pairTicks);
+    }
+
+    /**
+     * Rateの一覧から作成する、timestampが同じ場合は一覧の順を保つ
+     */
+    public static TickData of(List<Rate> rates) {
+        List<Rate> sorted = new ArrayList<>(rates);
+        sorted.sort(Comparator.comparing(Rate::getTimestamp));
+        TickData ticks = new TickData(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            Rate rate = sorted.get(i);
+            ticks.set(i, rate.getPair(), AutoTradeUtils.toEpochMilli(rate.getTimestamp()), rate.getAsk(), rate.getBid());
+        }
+        return ticks;
+    }
+
+    /**
+     * 1通貨ペア分の配列から作成する、配列は先頭からsize件を複製して使う
+     */
+    static TickData of(CurrencyPair pair, long[] epochMillis, int[] asks, int[] bids, int size) {
+        TickData ticks = new TickData(size);
+        Arrays.fill(ticks.pairs, (byte) pair.ordinal());
+        System.arraycopy(epochMillis, 0, ticks.epochMillis, 0, size);
+        System.arraycopy(asks, 0, ticks.asks, 0, size);
+        System.arraycopy(bids, 0, ticks.bids, 0, size);
+        return ticks;
+    }
+
+    public int size() {
+        return epochMillis.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public CurrencyPair pair(int index) {
+        return PAIRS[pairs[index]];
+    }
+
+    public long epochMillis(int index) {
+        return epochMillis[index];
+    }
+
+    public int ask(int index) {
+        return asks[index];
+    }
+
+    public int bid(int index) {
+        return bids[index];
+    }
+
+    public Rate getRate(int index) {
+        return Rate.builder()
+                .pair(pair(index))
+                .ask(asks[index])
+                .bid(bids[index])
+                .timestamp(AutoTradeUtils.toLocalDateTime(epochMillis[index]))
+                .build();
+    }
+
+    public long startMillis() {
+        return epochMillis[0];
+    }
+
+    public long endMillis() {
+        return epochMillis[size() - 1];
+    }
+
+    /**
+     * @return 通貨ペアごとの最初のindex、存在しない場合は-1
+     */
+    public int firstIndex(CurrencyPair pair) {
+        for (int i = 0; i < size(); i++) {
+            if (pairs[i] == pair.ordinal()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void set(int index, CurrencyPair pair, long millis, int ask, int bid) {
+        pairs[index] = (byte) pair.ordinal();
+        epochMillis[index] = millis;
+        asks[index] = ask;
+        bids[index] = bid;
+    }
+
+    private static TickData read(CurrencyPair pair, List<TickJournalReader> readers) {
+        TickData ticks = new TickData(readers.stream().mapToInt(TickJournalReader::size).sum());
+        int index = 0;
+        for (TickJournalReader reader : readers) {
+            for (int i = 0; i < reader.size(); i++) {
+                ticks.set(index++, pair, reader.epochMillis(i), reader.ask(i), reader.bid(i));
+            }
+        }
+        return ticks;
+    }
+
+    /**
+     * 通貨ペアごとの列を時刻順に統合する(時刻が同じ場合は通貨ペアの定義順)
+     */
+    static TickData merge(List<TickData> pairTicks) {
+        TickData merged = new TickData(pairTicks.stream().mapToInt(TickData::size).sum());
+        int[] positions = new int[pairTicks.size()];
+        for (int index = 0; index < merged.size(); index++) {
+            int next = -1;
+            for (int p = 0; p < pairTicks.size(); p++) {
+                TickData ticks = pairTicks.get(p);
+                if (positions[p] < ticks.size()
+                        && (next < 0 || ticks.epochMillis(positions[p]) < pairTicks.get(next).epochMillis(positions[next]))) {
+                    next = p;
+                }
+            }
+            TickData ticks = pairTicks.get(next);
+            int position = positions[next]++;
+            merged.set(index, ticks.pair(position), ticks.epochMillis(position), ticks.ask(position), ticks.bid(position));
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,209 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.utility.AutoTradeUtils;
+import lombok.Getter;
+
+/**
+ * TickModelに従ってRateの列を生成する
+ * 通貨ペアごとに(seed, 通貨ペア)から乱数を作るため、同じseed、TickModelであれば何度生成しても同じ結果となる
+ *
+ * スプレッドは通常時はminSpread(autotrade.pairs)とし、指標発表の前後のみ広げる
+ * 以下はRateAnalyzerの異常判定を再現するためのもので、TickModelで指定した場合のみ発生する
+ * ・指標発表前後のスプレッド拡大の開始直後(isDoubtful)
+ * ・配信停止中の同値の連続(hasDoubtfulRates)
+ * ・0、ask < bid、急変の異常値(isDoubtful)
+ */
+public class TickGenerator {
+
+    // 急変とみなされる変動幅(RateAnalyzer#isDoubtful)より大きい値
+    private static final int GLITCH_JUMP = 1000;
+
+    private long seed;
+    private List<TickModel> models;
+    @Getter
+    private List<LocalDateTime> indicators;
+
+    public TickGenerator(long seed) {
+        this.seed = seed;
+        this.models = new ArrayList<>();
+        this.indicators = new ArrayList<>();
+    }
+
+    public TickGenerator add(TickModel model) {
+        models.add(model);
+        return this;
+    }
+
+    /**
+     * 指標発表の時刻を追加する(Backtest#setIndicatorsにも同じ一覧を渡すこと)
+     */
+    public TickGenerator addIndicator(LocalDateTime indicator) {
+        indicators.add(indicator);
+        return this;
+    }
+
+    public TickData generate(LocalDateTime start, Duration duration) {
+        long startMillis = AutoTradeUtils.toEpochMilli(start);
+        long endMillis = startMillis + duration.toMillis();
+        long[] indicatorMillis = indicators.stream().mapToLong(AutoTradeUtils::toEpochMilli).sorted().toArray();
+        List<TickData> pairTicks = new ArrayList<>();
+        for (TickModel model : models) {
+            pairTicks.add(new PairGenerator(model, new Random(seed * 31 + model.getPair().ordinal()), indicatorMillis)
+                    .generate(startMillis, endMillis));
+        }
+        return TickData.merge(pairTicks);
+    }
+
+    /**
+     * 1通貨ペア分の生成状態
+     */
+    private static class PairGenerator {
+
+        private TickModel model;
+        private Random random;
+        private long[] indicatorMillis;
+        private int minSpread;
+
+        // 配信の有無によらず動き続ける価格
+        private double price;
+        private boolean isHighRegime;
+        private double nextRegimeMillis;
+        private double freezeStartMillis;
+        private int frozenAsk;
+        private int frozenBid;
+        private boolean isFrozen;
+
+        private int size;
+        private long[] epochMillis = new long[1024];
+        private int[] asks = new int[1024];
+        private int[] bids = new int[1024];
+
+        PairGenerator(TickModel model, Random random, long[] indicatorMillis) {
+            this.model = model;
+            this.random = random;
+            this.indicatorMillis = indicatorMillis;
+            this.minSpread = model.getPair().getMinSpread();
+            this.price = model.getInitialBid();
+        }
+
+        TickData generate(long startMillis, long endMillis) {
+            double meanInterval = 1000 / model.getTicksPerSecond();
+            double millis = startMillis;
+            nextRegimeMillis = startMillis + exponential(model.getRegimeDuration().toMillis());
+            freezeStartMillis = model.getFreezeInterval() == null
+                    ? Double.MAX_VALUE
+                    : startMillis + exponential(model.getFreezeInterval().toMillis());
+            while (true) {
+                double interval = exponential(meanInterval);
+                millis += interval;
+                if (millis >= endMillis) {
+                    break;
+                }
+                long current = (long) millis;
+                updateRegime(millis);
+                double magnification = isIndicatorWindow(current) ? model.getIndicatorMagnification() : 1;
+                move(interval / 1000, magnification * (isHighRegime ? model.getRegimeMagnification() : 1));
+
+                int bid = (int) Math.round(price);
+                int ask = bid + (int) Math.ceil(minSpread * magnification);
+                if (updateFreeze(millis, ask, bid)) {
+                    ask = frozenAsk;
+                    bid = frozenBid;
+                } else if (random.nextDouble() < model.getGlitchProbability()) {
+                    int[] glitch = glitch(ask, bid);
+                    ask = glitch[0];
+                    bid = glitch[1];
+                }
+                append(current, ask, bid);
+            }
+            return TickData.of(model.getPair(), epochMillis, asks, bids, size);
+        }
+
+        private void move(double seconds, double magnification) {
+            double gaussian = random.nextGaussian() * Math.sqrt(seconds);
+            switch (model.getProcess()) {
+            case GEOMETRIC_BROWNIAN_MOTION:
+                double sigma = model.getVolatility() / model.getInitialBid() * magnification;
+                price *= Math.exp((model.getDrift() - sigma * sigma / 2) * seconds + sigma * gaussian);
+                break;
+            default:
+                price += model.getVolatility() * magnification * gaussian;
+                break;
+            }
+            // 価格が0以下になると判定上の異常値と区別できないため、下限を設ける
+            price = Math.max(price, 1);
+        }
+
+        private void updateRegime(double millis) {
+            if (model.getRegimeMagnification() == 1) {
+                return;
+            }
+            while (millis >= nextRegimeMillis) {
+                isHighRegime = !isHighRegime;
+                nextRegimeMillis += exponential(model.getRegimeDuration().toMillis());
+            }
+        }
+
+        /**
+         * @return 配信が止まっている場合はtrue(止まった時点の値を返し続ける)
+         */
+        private boolean updateFreeze(double millis, int ask, int bid) {
+            if (isFrozen && millis >= freezeStartMillis + model.getFreezeDuration().toMillis()) {
+                isFrozen = false;
+                freezeStartMillis = millis + exponential(model.getFreezeInterval().toMillis());
+            }
+            if (!isFrozen && millis >= freezeStartMillis) {
+                isFrozen = true;
+                frozenAsk = ask;
+                frozenBid = bid;
+            }
+            return isFrozen;
+        }
+
+        private int[] glitch(int ask, int bid) {
+            switch (random.nextInt(3)) {
+            case 0:
+                return new int[] {0, 0};
+            case 1:
+                return new int[] {bid, ask};
+            default:
+                int jump = random.nextBoolean() ? GLITCH_JUMP : -GLITCH_JUMP;
+                return new int[] {ask + jump, bid + jump};
+            }
+        }
+
+        private boolean isIndicatorWindow(long millis) {
+            // millis以降に発表される最初の指標と、直前の指標を確認する
+            int index = Arrays.binarySearch(indicatorMillis, millis);
+            int next = index >= 0 ? index : -index - 1;
+            if (next < indicatorMillis.length && indicatorMillis[next] - millis <= model.getIndicatorBefore().toMillis()) {
+                return true;
+            }
+            return next > 0 && millis - indicatorMillis[next - 1] <= model.getIndicatorAfter().toMillis();
+        }
+
+        private double exponential(double mean) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+
+        private void append(long millis, int ask, int bid) {
+            if (size == epochMillis.length) {
+                epochMillis = Arrays.copyOf(epochMillis, size * 2);
+                asks = Arrays.copyOf(asks, size * 2);
+                bids = Arrays.copyOf(bids, size * 2);
+            }
+            epochMillis[size] = millis;
+            asks[size] = ask;
+            bids[size] = bid;
+            size++;
+        }
+    }
+}
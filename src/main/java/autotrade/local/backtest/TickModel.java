@@ -0,0 +1,67 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+
+import autotrade.local.material.CurrencyPair;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * TickGeneratorで通貨ペアごとに生成するRateの性質
+ * 価格、変動幅は画面表示の整数値(小数点を除いた値)で指定する
+ *
+ * 本番の取得間隔は1通貨ペアあたり約5ticks/sのため、100〜1000倍の負荷はticksPerSecondを500〜5000とする
+ */
+@Data
+@Builder
+public class TickModel {
+
+    public enum Process {
+        // 変動幅が価格によらない酔歩
+        RANDOM_WALK,
+        // 変動率が価格によらない幾何ブラウン運動
+        GEOMETRIC_BROWNIAN_MOTION,
+    }
+
+    private CurrencyPair pair;
+    @Builder.Default
+    private Process process = Process.RANDOM_WALK;
+    // bidの初期値
+    private int initialBid;
+    // 1秒あたりの平均Rate数(到着間隔は指数分布)
+    @Builder.Default
+    private double ticksPerSecond = 5;
+    // 1秒あたりの変動幅の標準偏差(GEOMETRIC_BROWNIAN_MOTIONでは初期値に対する比率に換算する)
+    @Builder.Default
+    private double volatility = 3;
+    // 1秒あたりの変動率の期待値(GEOMETRIC_BROWNIAN_MOTIONのみ)
+    @Builder.Default
+    private double drift = 0;
+
+    // 高ボラティリティ局面の変動幅の倍率(1の場合は局面を切り替えない)
+    @Builder.Default
+    private double regimeMagnification = 1;
+    // 各局面の平均継続時間(継続時間は指数分布)
+    @Builder.Default
+    private Duration regimeDuration = Duration.ofMinutes(10);
+
+    // 指標発表の前後でスプレッドを広げる期間
+    @Builder.Default
+    private Duration indicatorBefore = Duration.ofSeconds(30);
+    @Builder.Default
+    private Duration indicatorAfter = Duration.ofMinutes(2);
+    // 指標発表の前後のスプレッド、変動幅の倍率
+    @Builder.Default
+    private double indicatorMagnification = 5;
+
+    // 配信が止まり同じ値が続く期間の平均間隔(nullの場合は止まらない)
+    private Duration freezeInterval;
+    // 配信が止まる期間の長さ、止まっている間も価格は裏で動き続け、再開時に飛ぶ
+    @Builder.Default
+    private Duration freezeDuration = Duration.ofMinutes(2);
+
+    // Rateごとに異常値(0、ask < bid、急変)となる確率
+    @Builder.Default
+    private double glitchProbability = 0;
+
+}
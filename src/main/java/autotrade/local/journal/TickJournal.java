@@ -0,0 +1,88 @@
+package autotrade.local.journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 通貨ペアごとにRateを追記するジャーナル
+ * ファイルは「ディレクトリ/通貨ペア/yyyyMMdd.tick」とし、Rateの日付が変わった時点で次のファイルに切り替える
+ *
+ * 日付の切り替え時以外はアロケーションしないため、取引ループの中で呼び出してよい
+ */
+@Slf4j
+public class TickJournal {
+
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private Path directory;
+    private Map<CurrencyPair, TickJournalFile> files;
+    private Map<CurrencyPair, long[]> rollRanges;
+    // 日付の切り替え時に更新するUTCからの時差
+    private ZoneOffset offset;
+
+    public TickJournal() {
+        this(Paths.get("journal"));
+    }
+
+    public TickJournal(Path directory) {
+        this.directory = directory;
+        this.files = new EnumMap<>(CurrencyPair.class);
+        this.rollRanges = new EnumMap<>(CurrencyPair.class);
+        for (CurrencyPair pair : CurrencyPair.values()) {
+            // [当日開始, 翌日開始)のepochミリ秒
+            rollRanges.put(pair, new long[] {Long.MAX_VALUE, Long.MIN_VALUE});
+        }
+        this.offset = ZoneId.systemDefault().getRules().getOffset(LocalDateTime.now());
+    }
+
+    public void append(Rate rate) {
+        LocalDateTime timestamp = rate.getTimestamp();
+        long epochMillis = timestamp.toEpochSecond(offset) * 1000 + timestamp.getNano() / 1_000_000;
+        append(rate.getPair(), epochMillis, rate.getAsk(), rate.getBid());
+    }
+
+    public void append(CurrencyPair pair, long epochMillis, int ask, int bid) {
+        long[] range = rollRanges.get(pair);
+        if (epochMillis < range[0] || range[1] <= epochMillis) {
+            roll(pair, epochMillis);
+        }
+        files.get(pair).append(epochMillis, ask, bid);
+    }
+
+    public void close() {
+        files.values().forEach(TickJournalFile::close);
+        files.clear();
+    }
+
+    public static Path path(Path directory, CurrencyPair pair, LocalDate date) {
+        return directory.resolve(pair.name()).resolve(date.format(FILE_NAME_FORMAT) + ".tick");
+    }
+
+    private void roll(CurrencyPair pair, long epochMillis) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+        TickJournalFile current = files.remove(pair);
+        if (current != null) {
+            current.close();
+        }
+        TickJournalFile file = TickJournalFile.openForWrite(path(directory, pair, date), pair, date);
+        files.put(pair, file);
+        long[] range = rollRanges.get(pair);
+        range[0] = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        range[1] = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        offset = zone.getRules().getOffset(Instant.ofEpochMilli(epochMillis));
+        log.info("tick journal is opened. {} {} records", file.path(), file.count());
+    }
+}
@@ -0,0 +1,142 @@
+package autotrade.local.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.CurrencyPair;
+
+/**
+ * 1通貨ペア1日分のRateを固定長で記録するメモリマップドファイル
+ *
+ * ヘッダ(64byte)
+ *   0:magic(int) 4:version(int) 8:レコード長(int) 12:予備(int)
+ *   16:通貨ペア名(ASCII 16byte) 32:日付(epochDay long) 40:レコード件数(long)
+ * レコード(16byte)
+ *   0:timestamp(epochミリ秒 long) 8:ask(int) 12:bid(int)
+ *
+ * レコードを書き込んだ後に件数を更新するため、読み込み側は件数までのレコードを読めばよい
+ */
+class TickJournalFile {
+
+    static final int MAGIC = 0x41544A31;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 16;
+
+    private static final int PAIR_OFFSET = 16;
+    private static final int PAIR_LENGTH = 16;
+    private static final int DATE_OFFSET = 32;
+    private static final int COUNT_OFFSET = 40;
+    private static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private Path path;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long capacity;
+    private long count;
+
+    private TickJournalFile(Path path, FileChannel channel, long capacity) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        map(capacity);
+    }
+
+    /**
+     * 書き込み用に開く、既に存在する場合は続きから追記する
+     */
+    static TickJournalFile openForWrite(Path path, CurrencyPair pair, LocalDate date) {
+        try {
+            Files.createDirectories(path.getParent());
+            boolean exists = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long capacity = DEFAULT_CAPACITY;
+            if (exists) {
+                capacity = Math.max(capacity, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            }
+            TickJournalFile file = new TickJournalFile(path, channel, capacity);
+            if (exists) {
+                file.verifyHeader();
+                file.count = file.buffer.getLong(COUNT_OFFSET);
+            } else {
+                file.writeHeader(pair, date);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    void append(long epochMillis, int ask, int bid) {
+        if (count == capacity) {
+            grow();
+        }
+        int position = (int) (HEADER_SIZE + count * RECORD_SIZE);
+        buffer.putLong(position, epochMillis);
+        buffer.putInt(position + 8, ask);
+        buffer.putInt(position + 12, bid);
+        count++;
+        buffer.putLong(COUNT_OFFSET, count);
+    }
+
+    long count() {
+        return count;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    private void writeHeader(CurrencyPair pair, LocalDate date) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        byte[] name = pair.name().getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < PAIR_LENGTH; i++) {
+            buffer.put(PAIR_OFFSET + i, i < name.length ? name[i] : 0);
+        }
+        buffer.putLong(DATE_OFFSET, date.toEpochDay());
+        buffer.putLong(COUNT_OFFSET, 0);
+    }
+
+    private void verifyHeader() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+            throw new ApplicationException(MessageFormat.format("{0} is not tick journal.", path));
+        }
+    }
+
+    private void grow() {
+        try {
+            map(capacity * 2);
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    private void map(long capacity) throws IOException {
+        long size = HEADER_SIZE + capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new ApplicationException(MessageFormat.format("{0} is too large.", path));
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.capacity = capacity;
+    }
+}
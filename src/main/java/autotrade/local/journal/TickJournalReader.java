@@ -0,0 +1,146 @@
+package autotrade.local.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.AutoTradeUtils;
+
+/**
+ * TickJournalのファイルを読み込む
+ * 書き込み中のファイルも読み込めるよう、refresh()でヘッダのレコード件数を読み直す
+ */
+public class TickJournalReader implements AutoCloseable {
+
+    private static final int PAIR_OFFSET = 16;
+    private static final int PAIR_LENGTH = 16;
+    private static final int DATE_OFFSET = 32;
+    private static final int COUNT_OFFSET = 40;
+
+    private Path path;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private CurrencyPair pair;
+    private LocalDate date;
+    private int size;
+
+    public TickJournalReader(Path path) {
+        this.path = path;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            map();
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+        if (buffer.getInt(0) != TickJournalFile.MAGIC
+                || buffer.getInt(4) != TickJournalFile.VERSION
+                || buffer.getInt(8) != TickJournalFile.RECORD_SIZE) {
+            throw new ApplicationException(MessageFormat.format("{0} is not tick journal.", path));
+        }
+        byte[] name = new byte[PAIR_LENGTH];
+        buffer.get(PAIR_OFFSET, name);
+        pair = CurrencyPair.valueOf(new String(name, StandardCharsets.US_ASCII).trim());
+        date = LocalDate.ofEpochDay(buffer.getLong(DATE_OFFSET));
+        refresh();
+    }
+
+    /**
+     * 書き込み側が追記したレコードを読み込めるよう、件数とマッピングを更新する
+     *
+     * @return レコード件数
+     */
+    public int refresh() {
+        long count = buffer.getLong(COUNT_OFFSET);
+        if (TickJournalFile.HEADER_SIZE + count * TickJournalFile.RECORD_SIZE > buffer.capacity()) {
+            try {
+                map();
+            } catch (IOException e) {
+                throw new ApplicationException(e);
+            }
+            count = buffer.getLong(COUNT_OFFSET);
+        }
+        size = (int) count;
+        return size;
+    }
+
+    public CurrencyPair getPair() {
+        return pair;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long epochMillis(int index) {
+        return buffer.getLong(position(index));
+    }
+
+    public int ask(int index) {
+        return buffer.getInt(position(index) + 8);
+    }
+
+    public int bid(int index) {
+        return buffer.getInt(position(index) + 12);
+    }
+
+    public Rate getRate(int index) {
+        return Rate.builder()
+                .pair(pair)
+                .ask(ask(index))
+                .bid(bid(index))
+                .timestamp(AutoTradeUtils.toLocalDateTime(epochMillis(index)))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    /**
+     * @return 通貨ペアのジャーナルファイル(日付順)
+     */
+    public static List<Path> list(Path directory, CurrencyPair pair) {
+        Path pairDirectory = directory.resolve(pair.name());
+        if (!Files.isDirectory(pairDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(pairDirectory)) {
+            return paths.filter(p -> p.getFileName().toString().endsWith(".tick"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    private int position(int index) {
+        return TickJournalFile.HEADER_SIZE + index * TickJournalFile.RECORD_SIZE;
+    }
+
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,27 @@
+package autotrade.local.marketdata;
+
+import java.util.List;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+
+/**
+ * 通貨ペアごとのRateを供給する
+ * 取得方法(画面、ソケット等)を問わず、AutoTraderはpoll()で受信済みのRateを取り出して使う
+ */
+public interface MarketDataSource {
+
+    void start();
+
+    /**
+     * @return 前回の呼び出し以降に受信したRate(受信順)
+     */
+    List<Rate> poll();
+
+    /**
+     * @return 通貨ペアの最新Rate、未受信の場合はnull
+     */
+    Rate getLatest(CurrencyPair pair);
+
+    void close();
+}
@@ -0,0 +1,59 @@
+package autotrade.local.marketdata.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import autotrade.local.marketdata.MarketDataSource;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.TickClock;
+import autotrade.local.utility.WebDriverWrapper;
+
+/**
+ * 注文パネルに表示中の通貨ペアのRateを画面から取得する
+ * poll()の都度画面を参照するため、取得間隔はAutoTraderのループに従う
+ * WebDriverは再起動の都度作り直されるため、WebDriverWrapperは参照の都度取得する
+ */
+public class SeleniumMarketDataSource implements MarketDataSource {
+
+    private Supplier<WebDriverWrapper> wrapperSupplier;
+    private TickClock clock;
+    private Map<CurrencyPair, Rate> latestRates;
+
+    public SeleniumMarketDataSource(Supplier<WebDriverWrapper> wrapperSupplier, TickClock clock) {
+        this.wrapperSupplier = wrapperSupplier;
+        this.clock = clock;
+        this.latestRates = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void start() {
+        // 画面は参照の都度取得するため何もしない
+    }
+
+    @Override
+    public List<Rate> poll() {
+        WebDriverWrapper wrapper = wrapperSupplier.get();
+        Rate rate = Rate.builder()
+                .pair(CurrencyPair.valueOf(wrapper.getPair().replace("/", "")))
+                .ask(AutoTradeUtils.toInt(wrapper.getAskRate()))
+                .bid(AutoTradeUtils.toInt(wrapper.getBidRate()))
+                .timestamp(clock.now())
+                .build();
+        latestRates.put(rate.getPair(), rate);
+        return List.of(rate);
+    }
+
+    @Override
+    public Rate getLatest(CurrencyPair pair) {
+        return latestRates.get(pair);
+    }
+
+    @Override
+    public void close() {
+        // WebDriverはAutoTraderが管理するため何もしない
+    }
+}
@@ -0,0 +1,174 @@
+package autotrade.local.marketdata.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import autotrade.local.marketdata.MarketDataSource;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.AutoTradeUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TCPの行区切りの価格配信からRateを受信する
+ * 1行を1件とし、形式は「通貨ペア,ask,bid[,epochミリ秒]」とする(例:USDJPY,150.123,150.120,1700000000000)
+ * ask、bidは画面表示と同じく小数点を除いた整数として扱い、epochミリ秒を省略した場合は受信時刻とする
+ *
+ * 受信は専用スレッドで行い、切断された場合は1秒後に再接続する
+ * 受信済みのRateは容量まで保持し、取り出されないまま容量に達した場合(スリープ中、再起動中等)は古いものから破棄する
+ * 破棄した場合もgetLatest()は最新のRateを返す
+ */
+@Slf4j
+public class SocketMarketDataSource implements MarketDataSource {
+
+    private static final Duration RECONNECT_INTERVAL = Duration.ofSeconds(1);
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private String host;
+    private int port;
+    private BlockingQueue<Rate> receivedRates;
+    private Map<CurrencyPair, Rate> latestRates;
+    // 容量に達したため破棄したRateの件数
+    private AtomicLong droppedCount;
+    // poll()で通知済みの破棄件数(取り出し側のみ更新)
+    private long reportedDroppedCount;
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Thread reader;
+
+    public SocketMarketDataSource(String host, int port) {
+        this(host, port, DEFAULT_CAPACITY);
+    }
+
+    public SocketMarketDataSource(String host, int port, int capacity) {
+        this.host = host;
+        this.port = port;
+        this.receivedRates = new ArrayBlockingQueue<>(capacity);
+        this.latestRates = new ConcurrentHashMap<>();
+        this.droppedCount = new AtomicLong();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        reader = new Thread(this::read, "market-data-" + host + ":" + port);
+        reader.setDaemon(true);
+        reader.start();
+        log.info("socket market data source is started. {}:{}", host, port);
+    }
+
+    @Override
+    public List<Rate> poll() {
+        List<Rate> rates = new ArrayList<>();
+        Rate rate;
+        while ((rate = receivedRates.poll()) != null) {
+            rates.add(rate);
+        }
+        long dropped = droppedCount.get();
+        if (dropped > reportedDroppedCount) {
+            log.warn("{} received rates are dropped, because they were not polled.", dropped - reportedDroppedCount);
+            reportedDroppedCount = dropped;
+        }
+        return rates;
+    }
+
+    @Override
+    public Rate getLatest(CurrencyPair pair) {
+        return latestRates.get(pair);
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeSocket();
+        if (reader != null) {
+            reader.interrupt();
+        }
+        log.info("socket market data source is closed. {}:{}", host, port);
+    }
+
+    private void read() {
+        while (running) {
+            try (Socket connected = new Socket(host, port);
+                    BufferedReader lines = new BufferedReader(new InputStreamReader(connected.getInputStream(), StandardCharsets.UTF_8))) {
+                socket = connected;
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    Rate rate = parse(line);
+                    if (rate != null) {
+                        receive(rate);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("market data connection is lost. {}", e.getMessage());
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_INTERVAL.toMillis());
+                } catch (InterruptedException e) {
+                    // close()による中断
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Rate rate) {
+        while (!receivedRates.offer(rate)) {
+            // 取り出されていない最も古いRateを破棄する
+            if (receivedRates.poll() != null) {
+                droppedCount.incrementAndGet();
+            }
+        }
+        latestRates.put(rate.getPair(), rate);
+    }
+
+    static Rate parse(String line) {
+        String[] values = line.trim().split(",");
+        if (values.length < 3 || !CurrencyPair.getNames().contains(values[0])) {
+            log.warn("market data line is ignored. {}", line);
+            return null;
+        }
+        try {
+            long millis = values.length > 3 ? Long.parseLong(values[3]) : System.currentTimeMillis();
+            return Rate.builder()
+                    .pair(CurrencyPair.valueOf(values[0]))
+                    .ask(AutoTradeUtils.toInt(values[1]))
+                    .bid(AutoTradeUtils.toInt(values[2]))
+                    .timestamp(AutoTradeUtils.toLocalDateTime(millis))
+                    .build();
+        } catch (NumberFormatException e) {
+            log.warn("market data line is ignored. {}", line);
+            return null;
+        }
+    }
+
+    private void closeSocket() {
+        Socket connected = socket;
+        if (connected == null) {
+            return;
+        }
+        try {
+            connected.close();
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+        }
+    }
+}
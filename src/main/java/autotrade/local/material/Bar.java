@@ -0,0 +1,37 @@
+package autotrade.local.material;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 足(OHLC)
+ * open、closeは仲値、highはaskの最大値、lowはbidの最小値
+ */
+@Data
+@Builder
+public class Bar implements Serializable {
+
+    private BarResolution resolution;
+    private LocalDateTime timestamp;
+    private int open;
+    private int high;
+    private int low;
+    private int close;
+    private int average;
+    private int count;
+
+    public int getRange() {
+        return high - low;
+    }
+
+    public boolean isUp() {
+        return open < close;
+    }
+
+    public boolean isDown() {
+        return open > close;
+    }
+}
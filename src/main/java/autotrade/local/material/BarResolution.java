@@ -0,0 +1,23 @@
+package autotrade.local.material;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum BarResolution {
+
+    // 細かい順に定義すること
+    SECOND(Duration.ofSeconds(1)),
+    TEN_SECONDS(Duration.ofSeconds(10)),
+    MINUTE(Duration.ofMinutes(1)),
+    ;
+
+    private Duration duration;
+
+    public long toMillis() {
+        return duration.toMillis();
+    }
+}
@@ -0,0 +1,8 @@
+package autotrade.local.material;
+
+public enum FeedMode {
+    // ループごとに画面の価格を取得する
+    POLLING,
+    // MutationObserverで記録した価格変化のみを取得する
+    OBSERVER,
+}
@@ -0,0 +1,9 @@
+package autotrade.local.material;
+
+public enum OrderType {
+    ORDER_ASK,
+    ORDER_BID,
+    FIX_ALL,
+    FIX_ASK,
+    FIX_BID,
+}
@@ -5,6 +5,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+import autotrade.local.utility.TickClock;
 import lombok.Builder;
 import lombok.Data;
 
@@ -21,8 +22,8 @@ public class Rate implements Serializable {
         return ask - bid;
     }
 
-    public Duration passed() {
-        return Duration.between(timestamp, LocalDateTime.now());
+    public Duration passed(TickClock clock) {
+        return Duration.between(timestamp, clock.now());
     }
 
     public int getMiddle() {
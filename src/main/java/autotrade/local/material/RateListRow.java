@@ -0,0 +1,30 @@
+package autotrade.local.material;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * レート一覧の1行
+ */
+@Data
+@Builder
+public class RateListRow implements Serializable {
+
+    private CurrencyPair pair;
+    private int ask;
+    private int bid;
+    // 前日比(画面表示のまま)
+    private String rateDiff;
+
+    public Rate toRate(LocalDateTime timestamp) {
+        return Rate.builder()
+                .pair(pair)
+                .ask(ask)
+                .bid(bid)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,8 @@ aws:
 public class AutoTradeProperties {
 
     private static Map<String, Object> properties;
+    // 現在のスレッドでのみ有効な設定値(パラメータスイープで実行ごとに値を変えるため)
+    private static final ThreadLocal<Map<String, Object>> overrides = new ThreadLocal<>();
 
     private AutoTradeProperties() {}
 
@@ -63,25 +66,54 @@ public class AutoTradeProperties {
         }
     }
 
+    /**
+     * 現在のスレッドでのみ、指定したキー(ドット区切りの完全なキー)の設定値を上書きする
+     *
+     * @return 上書き前の状態(restoreに渡して元に戻す)
+     */
+    public static Map<String, Object> override(Map<String, Object> values) {
+        Map<String, Object> previous = overrides.get();
+        Map<String, Object> merged = previous == null ? new HashMap<>() : new HashMap<>(previous);
+        merged.putAll(values);
+        overrides.set(merged);
+        return previous;
+    }
+    public static void restore(Map<String, Object> previous) {
+        if (previous == null) {
+            overrides.remove();
+        } else {
+            overrides.set(previous);
+        }
+    }
+
     public static String get(String key) {
-        return resolvePropertie(key, properties).toString();
+        return resolve(key).toString();
     }
     public static int getInt(String key) {
-        return resolvePropertie(key, properties);
+        return resolve(key);
     }
     public static BigDecimal getBigDecimal(String key) {
         return new BigDecimal(get(key));
     }
     public static List<String> getList(String key) {
-        return resolvePropertie(key, properties);
+        return resolve(key);
     }
     public static boolean getBoolean(String key) {
-        return resolvePropertie(key, properties);
+        return resolve(key);
     }
     public static Map<String, Object> getMap(String key) {
-        return resolvePropertie(key, properties);
+        return resolve(key);
     }
     public static List<Map<String, Object>> getListMap(String key) {
+        return resolve(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T resolve(String key) {
+        Map<String, Object> values = overrides.get();
+        if (values != null && values.containsKey(key)) {
+            return (T) values.get(key);
+        }
         return resolvePropertie(key, properties);
     }
 
@@ -9,9 +9,13 @@ import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Base64;
 import java.util.List;
 import java.util.Random;
+import java.util.Scanner;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -28,11 +32,22 @@ import lombok.extern.slf4j.Slf4j;
 public class AutoTradeUtils {
 
     private static ObjectMapper objectMapper;
+    // バックテスト等で設定し、音声の再生、ローカルセーブ、Redisとの通信を行わない
+    private static volatile boolean isOffline;
 
     static {
         objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
     }
 
+    public static void offline() {
+        isOffline = true;
+        log.info("offline mode is set.");
+    }
+
+    public static boolean isOffline() {
+        return isOffline;
+    }
+
     public static void sleep(Duration duration) {
         try {
             Thread.sleep(duration.toMillis());
@@ -49,6 +64,14 @@ public class AutoTradeUtils {
         return Integer.parseInt(numStr);
     }
 
+    public static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
     public static String toJson(Object object) {
         try {
             return objectMapper.writeValueAsString(object);
@@ -79,6 +102,9 @@ public class AutoTradeUtils {
     }
 
     public static void playAudioRandom(AudioPath audioPath) {
+        if (isOffline) {
+            return;
+        }
         if(!audioPath.getPath().toFile().isDirectory()) {
             playAudio(audioPath.getPath());
         }
@@ -107,6 +133,10 @@ public class AutoTradeUtils {
     }
 
     public static void localSave(Path path, Object object) {
+        if (isOffline) {
+            log.info("local save is skipped in offline mode. {}", path);
+            return;
+        }
         try {
             path.getParent().toFile().mkdir();
             FileWriter fileWriter = new FileWriter(path.toFile());
@@ -124,6 +154,32 @@ public class AutoTradeUtils {
             throw new ApplicationException(e);
         }
     }
+
+    /**
+     * 標準入力で確認し、「y」が入力された場合にtrueを返す
+     * オフラインモードでは標準入力を読まずにfalseを返す
+     */
+    public static boolean confirm(String message) {
+        if (isOffline) {
+            log.debug("confirmation is skipped in offline mode. {}", message);
+            return false;
+        }
+        try (Scanner scanner = new Scanner(System.in)) {
+            System.out.print(message + " (y or any) :");
+            return "y".equals(scanner.next().toLowerCase());
+        }
+    }
+
+    /**
+     * 終了時の処理(ローカルセーブ等)を登録する
+     * オフラインモードでは登録しない(フックが参照するAutoTraderがJVMの終了まで解放されないため)
+     */
+    public static void addShutdownHook(Thread hook) {
+        if (isOffline) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(hook);
+    }
     
     @SuppressWarnings("unchecked")
 	public static <T> T newInstance(String fqcn) {
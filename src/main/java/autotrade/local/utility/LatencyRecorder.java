@@ -0,0 +1,46 @@
+package autotrade.local.utility;
+
+import java.text.MessageFormat;
+
+/**
+ * 処理時間の件数、平均、最大を記録する
+ * 複数スレッドから記録されることを想定し、各メソッドは同期する
+ */
+public class LatencyRecorder {
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public synchronized void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getAverageMillis() {
+        if (count == 0) {
+            return 0;
+        }
+        return (double) totalNanos / count / 1_000_000;
+    }
+
+    public synchronized double getMaxMillis() {
+        return (double) maxNanos / 1_000_000;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MessageFormat.format("count {0} avg {1,number,0.000}ms max {2,number,0.000}ms", count, getAverageMillis(), getMaxMillis());
+    }
+}
@@ -0,0 +1,44 @@
+package autotrade.local.utility;
+
+import org.openqa.selenium.By;
+
+import lombok.Getter;
+
+/**
+ * 取引画面の論理的な項目と、その要素を特定するXPath
+ */
+@Getter
+public enum Locator {
+    PAIR("//*[@id='order-brand']"),
+    MARGIN("//div[@id='account-status-01-value']"),
+    EFFECTIVE_MARGIN("//div[@id='account-status-02-value']"),
+    ASK_LOT("//div[@id='order-quick']/div[3]/div[2]/div/div[3]"),
+    BID_LOT("//div[@id='order-quick']/div[3]/div[2]/div/div[1]"),
+    ASK_AVERAGE_RATE("//div[@class='buy-avg-rate total-row-base']"),
+    BID_AVERAGE_RATE("//div[@class='sell-avg-rate total-row-base']"),
+    ASK_PIP_PROFIT("//div[@class='buy-pip-profit total-row-base']"),
+    BID_PIP_PROFIT("//div[@class='sell-pip-profit total-row-base']"),
+    ASK1("//span[@class='ask1']"),
+    ASK2("//span[@class='ask2']"),
+    ASK3("//span[@class='ask3']"),
+    BID1("//span[@class='bid1']"),
+    BID2("//span[@class='bid2']"),
+    BID3("//span[@class='bid3']"),
+    LOT("//*[@id='lot-param-quick-val']"),
+    ORDER_ASK("//*[@id='buy-panel-quick']"),
+    ORDER_BID("//*[@id='sell-panel-quick']"),
+    FIX_ALL("//*[@id='brand-all-close-quick']"),
+    FIX_ASK("//*[@id='buy-brand-all-close-quick']"),
+    FIX_BID("//*[@id='sell-brand-all-close-quick']"),
+    ;
+
+    private String xpath;
+
+    private Locator(String xpath) {
+        this.xpath = xpath;
+    }
+
+    public By by() {
+        return By.xpath(xpath);
+    }
+}
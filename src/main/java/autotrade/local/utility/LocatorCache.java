@@ -0,0 +1,110 @@
+package autotrade.local.utility;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Locatorごとに特定済みのWebElementを保持する
+ * 要素が再描画されStaleElementReferenceExceptionとなった場合は、再特定して1回だけやり直す
+ * 画面構成が変わる操作の後はinvalidateAll()で破棄すること
+ *
+ * 並列に参照されるため(AutoTrader#buildRate)、保持する情報はスレッドセーフとする
+ */
+@Slf4j
+class LocatorCache {
+
+    private WebDriver driver;
+    private Map<Locator, WebElement> elements;
+    // 要素の特定(findElement)に要した時間
+    private Map<Locator, LatencyRecorder> resolveLatencies;
+    // 特定済み要素の操作に要した時間
+    private Map<Locator, LatencyRecorder> readLatencies;
+    private AtomicLong staleCount;
+
+    LocatorCache(WebDriver driver) {
+        this.driver = driver;
+        elements = new ConcurrentHashMap<>();
+        resolveLatencies = Stream.of(Locator.values()).collect(Collectors.toMap(l -> l, l -> new LatencyRecorder()));
+        readLatencies = Stream.of(Locator.values()).collect(Collectors.toMap(l -> l, l -> new LatencyRecorder()));
+        staleCount = new AtomicLong();
+    }
+
+    String getText(Locator locator) {
+        return apply(locator, WebElement::getText);
+    }
+
+    void click(Locator locator) {
+        apply(locator, element -> {
+            element.click();
+            return null;
+        });
+    }
+
+    <T> T apply(Locator locator, Function<WebElement, T> function) {
+        try {
+            return timed(locator, function);
+        } catch (StaleElementReferenceException e) {
+            staleCount.incrementAndGet();
+            log.debug("{} is stale, resolve again.", locator);
+            elements.remove(locator);
+            return timed(locator, function);
+        }
+    }
+
+    void invalidateAll() {
+        elements.clear();
+    }
+
+    long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * @return Locatorごとの特定、操作の処理時間(記録があるもののみ)
+     */
+    String getLatencyReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("stale ").append(staleCount.get());
+        for (Locator locator : Locator.values()) {
+            LatencyRecorder resolve = resolveLatencies.get(locator);
+            LatencyRecorder read = readLatencies.get(locator);
+            if (resolve.getCount() == 0 && read.getCount() == 0) {
+                continue;
+            }
+            report.append("\n").append(locator)
+                    .append(" resolve ").append(resolve)
+                    .append(" read ").append(read);
+        }
+        return report.toString();
+    }
+
+    private <T> T timed(Locator locator, Function<WebElement, T> function) {
+        WebElement element = resolve(locator);
+        long started = System.nanoTime();
+        T result = function.apply(element);
+        readLatencies.get(locator).record(System.nanoTime() - started);
+        return result;
+    }
+
+    private WebElement resolve(Locator locator) {
+        WebElement element = elements.get(locator);
+        if (element != null) {
+            return element;
+        }
+        long started = System.nanoTime();
+        element = driver.findElement(locator.by());
+        resolveLatencies.get(locator).record(System.nanoTime() - started);
+        elements.put(locator, element);
+        return element;
+    }
+}
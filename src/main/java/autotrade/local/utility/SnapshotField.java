@@ -0,0 +1,31 @@
+package autotrade.local.utility;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.Getter;
+
+/**
+ * Snapshotの作成に使う画面項目
+ * 複数のLocatorを持つ項目は、各要素のテキストを連結した値とする
+ */
+@Getter
+public enum SnapshotField {
+    PAIR(Locator.PAIR),
+    ASK_LOT(Locator.ASK_LOT),
+    BID_LOT(Locator.BID_LOT),
+    ASK_AVERAGE_RATE(Locator.ASK_AVERAGE_RATE),
+    BID_AVERAGE_RATE(Locator.BID_AVERAGE_RATE),
+    MARGIN(Locator.MARGIN),
+    EFFECTIVE_MARGIN(Locator.EFFECTIVE_MARGIN),
+    ASK(Locator.ASK1, Locator.ASK2, Locator.ASK3),
+    BID(Locator.BID1, Locator.BID2, Locator.BID3),
+    ;
+
+    private List<String> xpaths;
+
+    private SnapshotField(Locator... locators) {
+        this.xpaths = Stream.of(locators).map(Locator::getXpath).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,57 @@
+package autotrade.local.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 単一の生産者スレッドと単一の消費者スレッド間で要素を受け渡すリングバッファ
+ * offer()は生産者のみ、poll()は消費者のみが呼び出すことを前提とし、ロックを使わない
+ * 満杯の場合、offer()は要素を追加せずfalseを返す
+ */
+public class SpscRingBuffer<T> {
+
+    private Object[] elements;
+    private int mask;
+    // 次に取り出す位置(消費者のみ更新)
+    private AtomicLong head;
+    // 次に追加する位置(生産者のみ更新)
+    private AtomicLong tail;
+
+    public SpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        elements = new Object[size];
+        mask = size - 1;
+        head = new AtomicLong();
+        tail = new AtomicLong();
+    }
+
+    public boolean offer(T element) {
+        long currentTail = tail.getPlain();
+        if (currentTail - head.getAcquire() == elements.length) {
+            return false;
+        }
+        elements[(int) (currentTail & mask)] = element;
+        tail.setRelease(currentTail + 1);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long currentHead = head.getPlain();
+        if (currentHead == tail.getAcquire()) {
+            return null;
+        }
+        int index = (int) (currentHead & mask);
+        T element = (T) elements[index];
+        elements[index] = null;
+        head.setRelease(currentHead + 1);
+        return element;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,114 @@
+package autotrade.local.utility;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+import autotrade.local.exception.ApplicationException;
+import lombok.Getter;
+
+/**
+ * 1回の判断で参照する現在時刻
+ * tick()時点の時刻を保持し、次のtick()まで同じ時刻を返す
+ *
+ * SYSTEM:tick()の都度システム時刻を取得する
+ * FIXED:set()、advance()で指定した時刻を返す(リプレイ用)
+ *
+ * sleep()はSYSTEMでは実際に待機し、FIXEDでは時刻を進めるのみとする
+ */
+public class TickClock {
+
+    public enum Mode {
+        SYSTEM,
+        FIXED,
+    }
+
+    @Getter
+    private Mode mode;
+    // 取引スレッド以外からcurrent()で参照するためvolatileとする
+    private volatile LocalDateTime now;
+    private long millis;
+    @Getter
+    private long tickCount;
+
+    private TickClock(Mode mode, LocalDateTime now) {
+        this.mode = mode;
+        update(now);
+    }
+
+    public static TickClock system() {
+        return new TickClock(Mode.SYSTEM, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    public static TickClock fixed(LocalDateTime now) {
+        return new TickClock(Mode.FIXED, now.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    public void tick() {
+        if (mode == Mode.SYSTEM) {
+            update(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        }
+        tickCount++;
+    }
+
+    public void set(LocalDateTime now) {
+        if (mode != Mode.FIXED) {
+            throw new ApplicationException("system clock can not be set.");
+        }
+        update(now.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    public void advance(Duration duration) {
+        set(now.plus(duration));
+    }
+
+    /**
+     * FIXEDに切り替え、以降はset()、advance()で時刻を進める(生成済みのTickClockを参照している部品ごとリプレイする場合に使う)
+     */
+    public void fix(LocalDateTime now) {
+        this.mode = Mode.FIXED;
+        update(now.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    public void sleep(Duration duration) {
+        if (mode == Mode.FIXED) {
+            advance(duration);
+            return;
+        }
+        AutoTradeUtils.sleep(duration);
+    }
+
+    /**
+     * 判断時刻とは別に、呼び出した時点の時刻を返す(tick()を行わないスレッドから参照する場合に使う)
+     * SYSTEMではシステム時刻、FIXEDでは指定されている時刻とする
+     */
+    public LocalDateTime current() {
+        if (mode == Mode.SYSTEM) {
+            return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        }
+        return now;
+    }
+
+    public LocalDateTime now() {
+        return now;
+    }
+
+    public LocalDate date() {
+        return now.toLocalDate();
+    }
+
+    public LocalTime time() {
+        return now.toLocalTime();
+    }
+
+    public long millis() {
+        return millis;
+    }
+
+    private void update(LocalDateTime now) {
+        this.now = now;
+        this.millis = AutoTradeUtils.toEpochMilli(now);
+    }
+}
@@ -6,25 +6,156 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import autotrade.local.exception.ApplicationException;
 import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.material.RateListRow;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class WebDriverWrapper {
 
+    // SnapshotFieldの各XPathを評価し、項目名をキーにテキストを返す(要素が存在しない項目はnull)
+    private static final String SNAPSHOT_SCRIPT = String.join("\n",
+            "var fields = arguments[0];",
+            "var result = {};",
+            "for (var key in fields) {",
+            "  var text = '';",
+            "  for (var i = 0; i < fields[key].length; i++) {",
+            "    var node = document.evaluate(fields[key][i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;",
+            "    if (node === null) {",
+            "      text = null;",
+            "      break;",
+            "    }",
+            "    text += node.innerText.trim();",
+            "  }",
+            "  result[key] = text;",
+            "}",
+            "return result;");
+    // 注文パネルとレート一覧の価格変化を記録するMutationObserverを登録する
+    // 記録はブラウザ側の時刻付きでwindow.__autotradeFeed.bufferに溜め、同一価格の連続は記録しない
+    private static final String FEED_INSTALL_SCRIPT = String.join("\n",
+            "var limit = arguments[0];",
+            "if (window.__autotradeFeed) {",
+            "  window.__autotradeFeed.observer.disconnect();",
+            "}",
+            "var feed = { buffer: [], last: {}, targets: [], rowCount: 0, observer: null };",
+            "var join = function(root, selector) {",
+            "  var text = '';",
+            "  root.querySelectorAll(selector).forEach(function(span) { text += span.innerText.trim(); });",
+            "  return text;",
+            "};",
+            "var currentPair = function() {",
+            "  var brand = document.getElementById('order-brand');",
+            "  return brand === null ? null : brand.innerText.trim().replace('/', '');",
+            "};",
+            "var record = function(pair, ask, bid) {",
+            "  if (pair === null || ask === '' || bid === '' || feed.last[pair] === ask + ',' + bid) {",
+            "    return;",
+            "  }",
+            "  feed.last[pair] = ask + ',' + bid;",
+            "  feed.buffer.push({ pair: pair, ask: ask, bid: bid, time: Date.now() });",
+            "  if (feed.buffer.length > limit) {",
+            "    feed.buffer.shift();",
+            "  }",
+            "};",
+            "var recordPanel = function() {",
+            "  record(currentPair(), join(document, 'span.ask1, span.ask2, span.ask3'), join(document, 'span.bid1, span.bid2, span.bid3'));",
+            "};",
+            "var recordRow = function(row) {",
+            "  var pair = row.id.replace('tab_rate_brand_', '');",
+            "  if (pair !== currentPair()) {",
+            "    record(pair, join(row, \"span[class^='ask']\"), join(row, \"span[class^='bid']\"));",
+            "  }",
+            "};",
+            "feed.observer = new MutationObserver(function(mutations) {",
+            "  var panelChanged = false;",
+            "  var rows = new Set();",
+            "  mutations.forEach(function(mutation) {",
+            "    var node = mutation.target.nodeType === Node.ELEMENT_NODE ? mutation.target : mutation.target.parentElement;",
+            "    var row = node === null ? null : node.closest(\"tr[id^='tab_rate_brand_']\");",
+            "    if (row === null) {",
+            "      panelChanged = true;",
+            "    } else {",
+            "      rows.add(row);",
+            "    }",
+            "  });",
+            "  if (panelChanged) {",
+            "    recordPanel();",
+            "  }",
+            "  rows.forEach(recordRow);",
+            "});",
+            "var options = { childList: true, characterData: true, subtree: true };",
+            "['span.ask1', 'span.bid1'].forEach(function(selector) {",
+            "  var span = document.querySelector(selector);",
+            "  if (span !== null && feed.targets.indexOf(span.parentElement) < 0) {",
+            "    feed.targets.push(span.parentElement);",
+            "    feed.observer.observe(span.parentElement, options);",
+            "  }",
+            "});",
+            "var rows = document.querySelectorAll(\"tr[id^='tab_rate_brand_']\");",
+            "rows.forEach(function(row) {",
+            "  feed.targets.push(row);",
+            "  feed.observer.observe(row, options);",
+            "  recordRow(row);",
+            "});",
+            "feed.rowCount = rows.length;",
+            "recordPanel();",
+            "window.__autotradeFeed = feed;");
+    // 記録した価格変化を取り出す、監視対象が再描画されている場合は再登録が必要なためnullを返す
+    private static final String FEED_DRAIN_SCRIPT = String.join("\n",
+            "var feed = window.__autotradeFeed;",
+            "if (!feed",
+            "    || feed.targets.some(function(target) { return !target.isConnected; })",
+            "    || feed.rowCount !== document.querySelectorAll(\"tr[id^='tab_rate_brand_']\").length) {",
+            "  return null;",
+            "}",
+            "var entries = feed.buffer;",
+            "feed.buffer = [];",
+            "return entries;");
+    private static final int FEED_BUFFER_LIMIT = 10000;
+    // レート一覧の全行からask、bid、前日比を取得する
+    private static final String RATE_LIST_SCRIPT = String.join("\n",
+            "var join = function(row, selector) {",
+            "  var text = '';",
+            "  row.querySelectorAll(selector).forEach(function(span) { text += span.innerText.trim(); });",
+            "  return text;",
+            "};",
+            "var rows = [];",
+            "document.querySelectorAll(\"tr[id^='tab_rate_brand_']\").forEach(function(row) {",
+            "  var diff = row.querySelector(\"span[class^='rate_diff']\");",
+            "  rows.push({",
+            "    pair: row.id.replace('tab_rate_brand_', ''),",
+            "    ask: join(row, \"span[class^='ask']\"),",
+            "    bid: join(row, \"span[class^='bid']\"),",
+            "    diff: diff === null ? '' : diff.innerText.trim()",
+            "  });",
+            "});",
+            "return rows;");
+
+    private static final Map<String, List<String>> SNAPSHOT_XPATHS = Stream.of(SnapshotField.values())
+            .collect(Collectors.toMap(SnapshotField::name, SnapshotField::getXpaths));
+
     private WebDriver driver;
+    private LocatorCache locators;
 
     public WebDriverWrapper(WebDriver driver) {
         this.driver = driver;
+        this.locators = new LocatorCache(driver);
     }
     public List<LocalDateTime> getIndicators(LocalDate targetDate) {
         driver.get("https://fx.dmm.com/market/indicators/");
@@ -102,26 +233,90 @@ public class WebDriverWrapper {
         driver.findElement(By.id("brand-regist-ok")).click();
     }
 
+    /**
+     * Snapshotの作成に使う画面項目を1回のスクリプト実行でまとめて取得する
+     * 項目ごとにfindElementする場合と比べ、chromedriverとの通信が1往復で済む
+     */
+    public Map<SnapshotField, String> readSnapshotFields() {
+        Object result = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, SNAPSHOT_XPATHS);
+        if (!(result instanceof Map)) {
+            throw new ApplicationException("snapshot script returned unexpected result.");
+        }
+        Map<?, ?> values = (Map<?, ?>) result;
+        Map<SnapshotField, String> fields = new EnumMap<>(SnapshotField.class);
+        for (SnapshotField field : SnapshotField.values()) {
+            Object value = values.get(field.name());
+            if (value == null) {
+                throw new ApplicationException(MessageFormat.format("snapshot field {0} is not found.", field.name()));
+            }
+            fields.put(field, value.toString());
+        }
+        fields.put(SnapshotField.ASK_LOT, trimLot(fields.get(SnapshotField.ASK_LOT)));
+        fields.put(SnapshotField.BID_LOT, trimLot(fields.get(SnapshotField.BID_LOT)));
+        return fields;
+    }
+
+    /**
+     * 価格変化を記録するMutationObserverを画面に登録する
+     */
+    public void installRateFeed() {
+        ((JavascriptExecutor) driver).executeScript(FEED_INSTALL_SCRIPT, FEED_BUFFER_LIMIT);
+        log.info("rate feed is installed.");
+    }
+
+    /**
+     * 前回から記録された価格変化を1回のスクリプト実行で取り出す
+     * 画面の再描画で監視対象が外れている場合は再登録し、登録時点の価格を次回以降に返す
+     *
+     * @return ブラウザ側の時刻をtimestampとしたRate(記録順)
+     */
+    public List<Rate> drainRateFeed() {
+        Object result = ((JavascriptExecutor) driver).executeScript(FEED_DRAIN_SCRIPT);
+        if (!(result instanceof List)) {
+            installRateFeed();
+            return List.of();
+        }
+        List<String> pairNames = CurrencyPair.getNames();
+        List<Rate> rates = new ArrayList<>();
+        for (Object entry : (List<?>) result) {
+            Map<?, ?> values = (Map<?, ?>) entry;
+            String pairName = values.get("pair").toString();
+            if (!pairNames.contains(pairName)) {
+                continue;
+            }
+            rates.add(Rate.builder()
+                    .pair(CurrencyPair.valueOf(pairName))
+                    .ask(AutoTradeUtils.toInt(values.get("ask").toString()))
+                    .bid(AutoTradeUtils.toInt(values.get("bid").toString()))
+                    .timestamp(AutoTradeUtils.toLocalDateTime(((Number) values.get("time")).longValue()))
+                    .build());
+        }
+        return rates;
+    }
+
     public String getPair() {
-        return driver.findElement(By.id("order-brand")).getText();
+        return locators.getText(Locator.PAIR);
     }
     public String getMargin() {
-        return driver.findElement(By.xpath("//div[@id='account-status-01-value']")).getText();
+        return locators.getText(Locator.MARGIN);
     }
     public String getEffectiveMargin() {
-        return driver.findElement(By.xpath("//div[@id='account-status-02-value']")).getText();
+        return locators.getText(Locator.EFFECTIVE_MARGIN);
     }
     public String getAskLot() {
-        return driver.findElement(By.xpath("//div[@id='order-quick']/div[3]/div[2]/div/div[3]")).getText().replace("　(0)", "");
+        return trimLot(locators.getText(Locator.ASK_LOT));
     }
     public String getBidLot() {
-        return driver.findElement(By.xpath("//div[@id='order-quick']/div[3]/div[2]/div/div[1]")).getText().replace("　(0)", "");
+        return trimLot(locators.getText(Locator.BID_LOT));
+    }
+    private String trimLot(String lot) {
+        return lot.replace("　(0)", "");
     }
     public String getAskAverageRate() {
-        return driver.findElement(By.xpath("//div[@class='buy-avg-rate total-row-base']")).getText();
+        return locators.getText(Locator.ASK_AVERAGE_RATE);
     }
     public String getBidAverageRate() {
-        return driver.findElement(By.xpath("//div[@class='sell-avg-rate total-row-base']")).getText();
+        return locators.getText(Locator.BID_AVERAGE_RATE);
     }
 //    public String getAskProfit() {
 //        return driver.findElement(By.xpath("//span[@uifield='askEvaluationPl']")).getText();
@@ -130,18 +325,47 @@ public class WebDriverWrapper {
 //        return driver.findElement(By.xpath("//span[@uifield='bidEvaluationPl']")).getText();
 //    }
     public String getAskPipProfit() {
-        return driver.findElement(By.xpath("//div[@class='buy-pip-profit total-row-base']")).getText();
+        return locators.getText(Locator.ASK_PIP_PROFIT);
     }
     public String getBidPipProfit() {
-        return driver.findElement(By.xpath("//div[@class='sell-pip-profit total-row-base']")).getText();
+        return locators.getText(Locator.BID_PIP_PROFIT);
     }
 //    public String getTodaysProfit() {
 //        return driver.findElement(By.xpath("//span[@uifield='dailyPlTotalJPY']")).getText();
 //    }
     public String getBidRate() {
-        return driver.findElement(By.xpath("//span[@class='bid1']")).getText()
-                + driver.findElement(By.xpath("//span[@class='bid2']")).getText()
-                + driver.findElement(By.xpath("//span[@class='bid3']")).getText();
+        return locators.getText(Locator.BID1)
+                + locators.getText(Locator.BID2)
+                + locators.getText(Locator.BID3);
+    }
+    /**
+     * レート一覧の全通貨ペアを1回のスクリプト実行で取得する
+     * 通貨ペアごとにfindElementsする場合と比べ、chromedriverとの通信が1往復で済む
+     *
+     * @return 通貨ペアごとの行(レート一覧を表示していない場合は空)
+     */
+    public Map<CurrencyPair, RateListRow> readRateList() {
+        Object result = ((JavascriptExecutor) driver).executeScript(RATE_LIST_SCRIPT);
+        if (!(result instanceof List)) {
+            throw new ApplicationException("rate list script returned unexpected result.");
+        }
+        List<String> pairNames = CurrencyPair.getNames();
+        Map<CurrencyPair, RateListRow> rows = new EnumMap<>(CurrencyPair.class);
+        for (Object entry : (List<?>) result) {
+            Map<?, ?> values = (Map<?, ?>) entry;
+            String pairName = values.get("pair").toString();
+            if (!pairNames.contains(pairName)) {
+                continue;
+            }
+            CurrencyPair pair = CurrencyPair.valueOf(pairName);
+            rows.put(pair, RateListRow.builder()
+                    .pair(pair)
+                    .ask(AutoTradeUtils.toInt(values.get("ask").toString()))
+                    .bid(AutoTradeUtils.toInt(values.get("bid").toString()))
+                    .rateDiff(values.get("diff").toString())
+                    .build());
+        }
+        return rows;
     }
     public String getBidRateFromList(CurrencyPair pair) {
         String xpath = MessageFormat.format("//tr[@id=''tab_rate_brand_{0}'']//span[starts-with(@class, ''bid'')]", pair.name());
@@ -149,9 +373,9 @@ public class WebDriverWrapper {
         return elements.stream().map(WebElement::getText).collect(Collectors.joining());
     }
     public String getAskRate() {
-        return driver.findElement(By.xpath("//span[@class='ask1']")).getText()
-                + driver.findElement(By.xpath("//span[@class='ask2']")).getText()
-                + driver.findElement(By.xpath("//span[@class='ask3']")).getText();
+        return locators.getText(Locator.ASK1)
+                + locators.getText(Locator.ASK2)
+                + locators.getText(Locator.ASK3);
     }
     public String getAskRateFromList(CurrencyPair pair) {
         String xpath = MessageFormat.format("//tr[@id=''tab_rate_brand_{0}'']//span[starts-with(@class, ''ask'')]", pair.name());
@@ -164,56 +388,68 @@ public class WebDriverWrapper {
         return driver.findElements(By.xpath(xpath)).get(0).getText();
     }
     public void setLot(int lot) {
-        String lastLot = driver.findElement(By.id("lot-param-quick-val")).getAttribute("value");
+        String lastLot = locators.apply(Locator.LOT, e -> e.getAttribute("value"));
         if (!lastLot.equals(String.valueOf(lot))) {
-            driver.findElement(By.id("lot-param-quick-val")).sendKeys(Keys.chord(Keys.CONTROL,"a"));
-            driver.findElement(By.id("lot-param-quick-val")).sendKeys(String.valueOf(lot));
+            locators.apply(Locator.LOT, e -> {
+                e.sendKeys(Keys.chord(Keys.CONTROL,"a"));
+                e.sendKeys(String.valueOf(lot));
+                return null;
+            });
         }
     }
     public void orderAsk() {
         try {
-            driver.findElement(By.id("buy-panel-quick")).click();
+            locators.click(Locator.ORDER_ASK);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     public void orderBid() {
         try {
-            driver.findElement(By.id("sell-panel-quick")).click();
+            locators.click(Locator.ORDER_BID);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     public void fixAll() {
         try {
-            driver.findElement(By.id("brand-all-close-quick")).click();
+            locators.click(Locator.FIX_ALL);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     public void fixAsk() {
         try {
-            driver.findElement(By.id("buy-brand-all-close-quick")).click();
+            locators.click(Locator.FIX_ASK);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     public void fixBid() {
         try {
-            driver.findElement(By.id("sell-brand-all-close-quick")).click();
+            locators.click(Locator.FIX_BID);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+    /**
+     * @return Locatorごとの要素特定、操作の処理時間
+     */
+    public String getLocatorReport() {
+        return locators.getLatencyReport();
+    }
     public void displayRateList() {
         driver.findElement(By.xpath("//li[@aria-controls='rate-menu']")).click();
+        locators.invalidateAll();
     }
     public void displayChart() {
         driver.findElement(By.xpath("//li[@aria-controls='chart-menu']")).click();
+        locators.invalidateAll();
     }
     public void changePair(String pair) {
         driver.findElement(By.xpath(
                 MessageFormat.format("//div[contains(text(),\"{0}\")]", pair))).click();
+        locators.invalidateAll();
         AutoTradeUtils.sleep(Duration.ofSeconds(1));
         orderSettings();
     }
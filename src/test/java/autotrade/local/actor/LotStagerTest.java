@@ -0,0 +1,28 @@
+package autotrade.local.actor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.material.Snapshot;
+
+public class LotStagerTest {
+
+    @Test
+    public void stage() {
+        LotStager lotStager = new LotStager();
+        Snapshot snapshot = Snapshot.builder().askLot(2).bidLot(1).build();
+        Assertions.assertTrue(lotStager.needsStaging(snapshot));
+
+        lotStager.stage(snapshot, 3);
+        Assertions.assertFalse(lotStager.needsStaging(Snapshot.builder().askLot(2).bidLot(1).build()));
+        // ポジションが変わった場合は入力し直す
+        Assertions.assertTrue(lotStager.needsStaging(Snapshot.builder().askLot(5).bidLot(1).build()));
+
+        Assertions.assertTrue(lotStager.use(3));
+        Assertions.assertFalse(lotStager.use(4));
+        lotStager.invalidate();
+        Assertions.assertFalse(lotStager.use(3));
+        Assertions.assertEquals(1, lotStager.getHitCount());
+        Assertions.assertEquals(2, lotStager.getMismatchCount());
+    }
+}
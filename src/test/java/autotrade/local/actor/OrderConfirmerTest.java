@@ -0,0 +1,47 @@
+package autotrade.local.actor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.material.OrderType;
+import autotrade.local.utility.TickClock;
+
+public class OrderConfirmerTest {
+
+    @Test
+    public void confirm() {
+        OrderConfirmer orderConfirmer = new OrderConfirmer(Duration.ofSeconds(1), TickClock.system());
+        AtomicInteger count = new AtomicInteger();
+        // 3回目の確認で反映される
+        orderConfirmer.confirm(OrderType.ORDER_ASK, () -> count.incrementAndGet() >= 3);
+        Assertions.assertEquals(3, count.get());
+        Assertions.assertEquals(1, orderConfirmer.getLatency(OrderType.ORDER_ASK).getCount());
+        Assertions.assertEquals(0, orderConfirmer.getLatency(OrderType.ORDER_BID).getCount());
+    }
+
+    @Test
+    public void timeout() {
+        OrderConfirmer orderConfirmer = new OrderConfirmer(Duration.ofMillis(100), TickClock.system());
+        Assertions.assertThrows(ApplicationException.class, () -> orderConfirmer.confirm(OrderType.FIX_ALL, () -> false));
+        Assertions.assertEquals(0, orderConfirmer.getLatency(OrderType.FIX_ALL).getCount());
+    }
+
+    @Test
+    public void fixedClock() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 10, 10, 0);
+        TickClock clock = TickClock.fixed(start);
+        OrderConfirmer orderConfirmer = new OrderConfirmer(Duration.ofSeconds(10), clock);
+        // 500ms後に反映される
+        orderConfirmer.confirm(OrderType.ORDER_BID, () -> !clock.now().isBefore(start.plusNanos(500_000_000)));
+        Assertions.assertFalse(clock.now().isBefore(start.plusNanos(500_000_000)));
+        Assertions.assertEquals(1, orderConfirmer.getLatency(OrderType.ORDER_BID).getCount());
+
+        Assertions.assertThrows(ApplicationException.class, () -> orderConfirmer.confirm(OrderType.FIX_ALL, () -> false));
+        Assertions.assertTrue(clock.now().isAfter(start.plusSeconds(10)));
+    }
+}
@@ -2,17 +2,25 @@ package autotrade.local.actor;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import autotrade.local.material.Bar;
+import autotrade.local.material.BarResolution;
 import autotrade.local.material.Rate;
+import autotrade.local.utility.TickClock;
 
 public class RateAnalyzerTest {
 
     @Test
     public void test() {
-        RateAnalyzer rateAnalyzer = new RateAnalyzer();
+        RateAnalyzer rateAnalyzer = new RateAnalyzer(TickClock.fixed(LocalDateTime.now()));
         rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(LocalDateTime.now().minusMinutes(9)).build());
         rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(LocalDateTime.now().minusMinutes(8)).build());
         rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(LocalDateTime.now().minusMinutes(7)).build());
@@ -25,4 +33,168 @@ public class RateAnalyzerTest {
         Assertions.assertTrue(rateAnalyzer.isUpwardWithin(Duration.ofMinutes(10)));
     }
 
+    @Test
+    public void windowEquivalence() {
+        LocalDateTime base = LocalDateTime.now().minusMinutes(30);
+        TickClock clock = TickClock.fixed(base);
+        RateAnalyzer rateAnalyzer = new RateAnalyzer(clock);
+        List<Duration> durations = List.of(
+                Duration.ofSeconds(30),
+                Duration.ofSeconds(150),
+                Duration.ofMinutes(5),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(25));
+        List<Rate> rates = new ArrayList<>();
+        Random random = new Random(1);
+        int bid = 100000;
+        for (int i = 0; i < 1000; i++) {
+            // リプレイと同様にRateのtimestampまで時刻を進める
+            clock.advance(Duration.ofMillis(random.nextInt(3000)));
+            bid += random.nextInt(41) - 20;
+            Rate rate = Rate.builder().ask(bid + random.nextInt(5)).bid(bid).timestamp(clock.now()).build();
+            rateAnalyzer.add(rate);
+            if (!rateAnalyzer.isDoubtful()) {
+                rates.add(rate);
+            }
+            rates.removeIf(r -> r.getTimestamp().isBefore(clock.now().minusMinutes(20)));
+            clock.advance(Duration.ofMillis(random.nextInt(1000)));
+            for (Duration duration : durations) {
+                LocalDateTime now = clock.now();
+                Assertions.assertEquals(rateAnalyzer.maxBetween(now.minus(duration), now), rateAnalyzer.maxWithin(duration));
+                Assertions.assertEquals(rateAnalyzer.minBetween(now.minus(duration), now), rateAnalyzer.minWithin(duration));
+                Assertions.assertEquals(rateAnalyzer.averageBetween(now.minus(duration), now), rateAnalyzer.averageWithin(duration));
+                Assertions.assertEquals(rateAnalyzer.timeWeightedAverageBetween(now.minus(duration), now), rateAnalyzer.timeWeightedAverageWithin(duration));
+                Assertions.assertEquals(isUpwardBetween(rates, now.minus(duration), now), rateAnalyzer.isUpwardWithin(duration));
+            }
+        }
+    }
+
+    @Test
+    public void futureTimestamp() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 10, 10, 0);
+        TickClock clock = TickClock.fixed(now);
+        RateAnalyzer rateAnalyzer = new RateAnalyzer(clock);
+        Duration duration = Duration.ofMinutes(1);
+        // 最初のRateは疑わしいRateとして除外される
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(now.minusSeconds(40)).build());
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(now.minusSeconds(40)).build());
+        rateAnalyzer.add(Rate.builder().ask(106).bid(105).timestamp(now.minusSeconds(30)).build());
+        rateAnalyzer.add(Rate.builder().ask(103).bid(102).timestamp(now.minusSeconds(20)).build());
+        // 判断時刻より後のtimestampのRateは含めない
+        rateAnalyzer.add(Rate.builder().ask(111).bid(110).timestamp(now.plusSeconds(5)).build());
+        rateAnalyzer.add(Rate.builder().ask(99).bid(98).timestamp(now.plusSeconds(6)).build());
+        Assertions.assertEquals(106, rateAnalyzer.maxWithin(duration));
+        Assertions.assertEquals(100, rateAnalyzer.minWithin(duration));
+        Assertions.assertEquals(rateAnalyzer.averageBetween(now.minus(duration), now), rateAnalyzer.averageWithin(duration));
+        Assertions.assertEquals(rateAnalyzer.timeWeightedAverageBetween(now.minus(duration), now), rateAnalyzer.timeWeightedAverageWithin(duration));
+        Assertions.assertTrue(rateAnalyzer.isUpwardWithin(duration));
+
+        // 時刻が進めば含める
+        clock.advance(Duration.ofSeconds(6));
+        Assertions.assertEquals(111, rateAnalyzer.maxWithin(duration));
+        Assertions.assertEquals(98, rateAnalyzer.minWithin(duration));
+        Assertions.assertFalse(rateAnalyzer.isUpwardWithin(duration));
+    }
+
+    /**
+     * 全件走査による判定
+     */
+    private static boolean isUpwardBetween(List<Rate> rates, LocalDateTime from, LocalDateTime to) {
+        Predicate<Rate> filter = r -> !r.getTimestamp().isBefore(from) && !r.getTimestamp().isAfter(to);
+        LocalDateTime whenMax = rates.stream()
+                .filter(filter)
+                .max(Comparator.comparing(Rate::getAsk))
+                .map(Rate::getTimestamp)
+                .orElse(to);
+        LocalDateTime whenMin = rates.stream()
+                .filter(filter)
+                .min(Comparator.comparing(Rate::getBid))
+                .map(Rate::getTimestamp)
+                .orElse(to);
+        return whenMax.isAfter(whenMin);
+    }
+
+    @Test
+    public void barEquivalence() {
+        RateAnalyzer rateAnalyzer = new RateAnalyzer(TickClock.fixed(LocalDateTime.now()));
+        List<Rate> rates = new ArrayList<>();
+        Random random = new Random(2);
+        LocalDateTime timestamp = LocalDateTime.now().minusMinutes(19);
+        int bid = 100000;
+        while (timestamp.isBefore(LocalDateTime.now().minusSeconds(1))) {
+            bid += random.nextInt(41) - 20;
+            Rate rate = Rate.builder().ask(bid + random.nextInt(5)).bid(bid).timestamp(timestamp).build();
+            rateAnalyzer.add(rate);
+            if (!rateAnalyzer.isDoubtful()) {
+                rates.add(rate);
+            }
+            timestamp = timestamp.plus(Duration.ofMillis(50 + random.nextInt(3000)));
+        }
+        LocalDateTime start = rates.get(0).getTimestamp();
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime from = start.plus(Duration.ofMillis(random.nextInt(19 * 60 * 1000)));
+            LocalDateTime to = from.plus(Duration.ofMillis(random.nextInt(10 * 60 * 1000)));
+            List<Rate> between = new ArrayList<>();
+            for (Rate rate : rates) {
+                if (!rate.getTimestamp().isBefore(from) && !rate.getTimestamp().isAfter(to)) {
+                    between.add(rate);
+                }
+            }
+            Assertions.assertEquals(between.stream().mapToInt(Rate::getAsk).max().orElse(Integer.MAX_VALUE), rateAnalyzer.maxBetween(from, to));
+            Assertions.assertEquals(between.stream().mapToInt(Rate::getBid).min().orElse(Integer.MIN_VALUE), rateAnalyzer.minBetween(from, to));
+            Assertions.assertEquals((int) between.stream().mapToInt(Rate::getMiddle).average().orElse(0.0), rateAnalyzer.averageBetween(from, to));
+        }
+        for (BarResolution resolution : BarResolution.values()) {
+            List<Bar> bars = rateAnalyzer.getBars(resolution, Duration.ofMinutes(20));
+            Assertions.assertEquals(rates.size(), bars.stream().mapToInt(Bar::getCount).sum());
+        }
+    }
+
+    @Test
+    public void timeWeightedAverage() {
+        RateAnalyzer rateAnalyzer = new RateAnalyzer(TickClock.fixed(LocalDateTime.now()));
+        LocalDateTime base = LocalDateTime.now().minusMinutes(1);
+        // 最初のRateは疑わしいRateとして除外される
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(base).build());
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(base).build());
+        rateAnalyzer.add(Rate.builder().ask(201).bid(200).timestamp(base.plusSeconds(10)).build());
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(base.plusSeconds(11)).build());
+        // 件数では(100 + 200 + 100) / 3、時間では(100 * 10 + 200 * 1) / 11
+        Assertions.assertEquals(133, rateAnalyzer.averageBetween(base, base.plusSeconds(11)));
+        Assertions.assertEquals(109, rateAnalyzer.timeWeightedAverageBetween(base, base.plusSeconds(11)));
+        // 開始時点の仲値は直前のRateから求める
+        Assertions.assertEquals(150, rateAnalyzer.timeWeightedAverageBetween(base.plusSeconds(9), base.plusSeconds(11)));
+    }
+
+
+    @Test
+    public void queryCache() {
+        TickClock clock = TickClock.fixed(LocalDateTime.now());
+        RateAnalyzer rateAnalyzer = new RateAnalyzer(clock);
+        // add()が内部で参照するthresholdDuration(分単位の設定値)と重ならない期間とする
+        Duration duration = Duration.ofSeconds(90);
+        // 最初のRateは疑わしいRateとして除外される
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(clock.now()).build());
+        rateAnalyzer.add(Rate.builder().ask(101).bid(100).timestamp(clock.now()).build());
+        rateAnalyzer.resetQueryCount();
+
+        // 同一tick内の重複参照はキャッシュから返す
+        Assertions.assertEquals(101, rateAnalyzer.maxWithin(duration));
+        Assertions.assertEquals(101, rateAnalyzer.maxWithin(duration));
+        Assertions.assertEquals(100, rateAnalyzer.minWithin(duration));
+        Assertions.assertEquals(1, rateAnalyzer.getQueryHitCount());
+        Assertions.assertEquals(2, rateAnalyzer.getQueryMissCount());
+
+        // add()で無効化する
+        rateAnalyzer.add(Rate.builder().ask(102).bid(101).timestamp(clock.now()).build());
+        rateAnalyzer.resetQueryCount();
+        Assertions.assertEquals(100, rateAnalyzer.minWithin(duration));
+        Assertions.assertEquals(0, rateAnalyzer.getQueryHitCount());
+
+        // 時刻の変化で無効化する
+        clock.advance(Duration.ofMinutes(2));
+        Assertions.assertEquals(Integer.MIN_VALUE, rateAnalyzer.minWithin(duration));
+        Assertions.assertEquals(0, rateAnalyzer.getQueryHitCount());
+        Assertions.assertEquals(2, rateAnalyzer.getQueryMissCount());
+    }
 }
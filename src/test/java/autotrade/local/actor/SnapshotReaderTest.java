@@ -0,0 +1,38 @@
+package autotrade.local.actor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.material.Snapshot;
+import autotrade.local.utility.AutoTradeUtils;
+
+public class SnapshotReaderTest {
+
+    @Test
+    public void takeLatest() {
+        AtomicInteger counter = new AtomicInteger();
+        SnapshotReader reader = new SnapshotReader(() -> {
+            AutoTradeUtils.sleep(Duration.ofMillis(1));
+            return Snapshot.builder().askLot(counter.incrementAndGet()).build();
+        });
+        reader.start();
+        try {
+            int first = reader.takeLatest().getAskLot();
+            AutoTradeUtils.sleep(Duration.ofMillis(50));
+            // 溜まっている間に取得されたものは読み捨てて最新を受け取る
+            int second = reader.takeLatest().getAskLot();
+            Assertions.assertTrue(second > first + 1);
+            Assertions.assertTrue(reader.getConflatedCount() > 0);
+            Assertions.assertEquals(2, reader.getAge().getCount());
+
+            reader.discardStale();
+            int third = reader.takeLatest().getAskLot();
+            Assertions.assertTrue(third > second);
+        } finally {
+            reader.stop();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package autotrade.local.actor;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TickBufferTest {
+
+    @Test
+    public void rangeIndex() {
+        // リングの折り返し、拡張が発生するよう小さい容量で開始する
+        TickBuffer ticks = new TickBuffer(8);
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            ticks.add(random.nextInt(1000), random.nextInt(1000), i * 100L);
+            ticks.evictBefore(i * 100L - random.nextInt(3000));
+            long fromSeq = ticks.headSeq() + random.nextInt(ticks.size());
+            long toSeq = fromSeq + random.nextInt((int) (ticks.tailSeq() - fromSeq) + 1);
+            int max = Integer.MAX_VALUE;
+            int min = Integer.MIN_VALUE;
+            for (long seq = fromSeq; seq < toSeq; seq++) {
+                max = seq == fromSeq ? ticks.ask(seq) : Math.max(max, ticks.ask(seq));
+                min = seq == fromSeq ? ticks.bid(seq) : Math.min(min, ticks.bid(seq));
+            }
+            Assertions.assertEquals(max, ticks.maxAsk(fromSeq, toSeq));
+            Assertions.assertEquals(min, ticks.minBid(fromSeq, toSeq));
+        }
+    }
+
+    @Test
+    public void bound() {
+        TickBuffer ticks = new TickBuffer(4);
+        ticks.add(101, 100, 1000);
+        ticks.add(102, 101, 2000);
+        ticks.add(103, 102, 2000);
+        ticks.add(104, 103, 3000);
+        // timestampの逆転は直前の値に丸める
+        ticks.add(105, 104, 2500);
+        Assertions.assertEquals(1, ticks.lowerBound(2000));
+        Assertions.assertEquals(3, ticks.upperBound(2000));
+        Assertions.assertEquals(5, ticks.upperBound(3000));
+        ticks.evictBefore(2000);
+        Assertions.assertEquals(1, ticks.headSeq());
+        Assertions.assertEquals(105, ticks.maxAsk(ticks.headSeq(), ticks.tailSeq()));
+    }
+}
@@ -0,0 +1,54 @@
+package autotrade.local.actor;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.utility.AutoTradeUtils;
+
+public class TickSchedulerTest {
+
+    @Test
+    public void backOff() {
+        TickScheduler scheduler = new TickScheduler(Duration.ofMillis(100), Duration.ofMillis(300));
+        for (int i = 0; i < 50; i++) {
+            scheduler.endTick(false, false);
+        }
+        Assertions.assertEquals(Duration.ofMillis(200), scheduler.getInterval());
+        for (int i = 0; i < 100; i++) {
+            scheduler.endTick(false, false);
+        }
+        // 最大間隔で頭打ちとなる
+        Assertions.assertEquals(Duration.ofMillis(300), scheduler.getInterval());
+
+        // 指標が近い場合は目標間隔に戻す
+        scheduler.endTick(false, true);
+        Assertions.assertEquals(Duration.ofMillis(100), scheduler.getInterval());
+
+        for (int i = 0; i < 50; i++) {
+            scheduler.endTick(false, false);
+        }
+        scheduler.endTick(true, false);
+        Assertions.assertEquals(Duration.ofMillis(100), scheduler.getInterval());
+    }
+
+    @Test
+    public void pace() {
+        TickScheduler scheduler = new TickScheduler(Duration.ofMillis(20), Duration.ofMillis(20));
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            scheduler.awaitNextTick();
+            scheduler.endTick(true, false);
+        }
+        // 初回は即時、以降は20ms間隔
+        Assertions.assertTrue(System.nanoTime() - started >= Duration.ofMillis(80).toNanos());
+        Assertions.assertEquals(0, scheduler.getOverrunCount());
+
+        scheduler.awaitNextTick();
+        AutoTradeUtils.sleep(Duration.ofMillis(50));
+        scheduler.endTick(true, false);
+        Assertions.assertEquals(1, scheduler.getOverrunCount());
+        Assertions.assertEquals(6, scheduler.getWork().getCount());
+    }
+}
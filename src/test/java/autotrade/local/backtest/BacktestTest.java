@@ -0,0 +1,75 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.utility.AutoTradeProperties;
+import autotrade.local.utility.AutoTradeUtils;
+
+public class BacktestTest {
+
+    @BeforeAll
+    public static void offline() {
+        AutoTradeUtils.offline();
+    }
+
+    @Test
+    public void run() {
+        TickData ticks = TickData.of(TestRates.randomWalk(1, LocalDateTime.of(2024, 1, 10, 10, 0), 3 * 60 * 60 * 5));
+        for (String implementation : List.of(
+                "autotrade.local.autotrader.impl.AutoTrader19th",
+                "autotrade.local.autotrader.impl.AutoTrader16th")) {
+            BacktestResult result = new Backtest(implementation, ticks).run();
+            Assertions.assertEquals(ticks.size(), result.getTickCount());
+            Assertions.assertTrue(result.getStepCount() > 0);
+            Assertions.assertEquals(0, result.getRestartCount());
+            Assertions.assertFalse(result.getEquityCurve().isEmpty());
+            Assertions.assertEquals(result.getProfit(), result.getFills().stream().mapToLong(Fill::getProfit).sum());
+        }
+    }
+
+    @Test
+    public void latency() {
+        TickData ticks = TickData.of(TestRates.randomWalk(1, LocalDateTime.of(2024, 1, 10, 10, 0), 60 * 60 * 5));
+        Backtest backtest = new Backtest("autotrade.local.autotrader.impl.AutoTrader19th", ticks);
+        backtest.setExecutionModel(ExecutionModel.builder()
+                .latency(Duration.ofMillis(150))
+                .latencyJitter(Duration.ofMillis(100))
+                .slippageProbability(0.3)
+                .maxSlippage(2)
+                .build());
+        BacktestResult result = backtest.run();
+        Assertions.assertTrue(result.getStepCount() > 0);
+        // 約定確認は遅延の分だけ待って成功する
+        Assertions.assertEquals(0, result.getRestartCount());
+        Assertions.assertFalse(result.getFills().isEmpty());
+        Assertions.assertTrue(result.getFills().stream().allMatch(fill -> fill.getLatencyMillis() >= 150));
+        Assertions.assertEquals(result.getProfit(), result.getFills().stream().mapToLong(Fill::getProfit).sum());
+    }
+
+    @Test
+    public void singlePair() {
+        // 推奨通貨ペアにRateのない通貨ペアが含まれていても、レート一覧に無い通貨ペアは変化なしとして選択する
+        TickData ticks = TickData.of(TestRates.randomWalk(1, LocalDateTime.of(2024, 1, 10, 10, 0), 60 * 60 * 5).stream()
+                .filter(rate -> rate.getPair() == CurrencyPair.USDJPY)
+                .collect(Collectors.toList()));
+        Map<String, Object> previous = AutoTradeProperties.override(Map.of(
+                "autotrade.autoRecommended.flag", true,
+                "autoTrader19th.autoRecommended.pairs", List.of("USDJPY", "EURUSD")));
+        try {
+            BacktestResult result = new Backtest("autotrade.local.autotrader.impl.AutoTrader19th", ticks).run();
+            Assertions.assertTrue(result.getStepCount() > 0);
+            Assertions.assertEquals(0, result.getRestartCount());
+        } finally {
+            AutoTradeProperties.restore(previous);
+        }
+    }
+}
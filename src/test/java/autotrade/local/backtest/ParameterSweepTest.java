@@ -0,0 +1,99 @@
+package autotrade.local.backtest;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.autotrader.AutoTrader;
+import autotrade.local.exception.ApplicationException;
+import autotrade.local.utility.AutoTradeProperties;
+import autotrade.local.utility.AutoTradeUtils;
+
+public class ParameterSweepTest {
+
+    private static final String IMPLEMENTATION = "autotrade.local.autotrader.impl.AutoTrader19th";
+
+    @BeforeAll
+    public static void offline() {
+        AutoTradeUtils.offline();
+    }
+
+    @Test
+    public void combinations() {
+        Map<String, List<Object>> grid = new LinkedHashMap<>();
+        grid.put("a", List.of(1, 2, 3));
+        grid.put("b", List.of("x", "y"));
+        List<Map<String, Object>> combinations = ParameterSweep.combinations(grid);
+        Assertions.assertEquals(6, combinations.size());
+        Assertions.assertEquals(Map.of("a", 1, "b", "x"), combinations.get(0));
+        Assertions.assertEquals(Map.of("a", 3, "b", "y"), combinations.get(5));
+    }
+
+    @Test
+    public void run() {
+        TickData ticks = TickData.of(TestRates.randomWalk(2, LocalDateTime.of(2024, 1, 10, 10, 0), 60 * 60 * 5));
+        Map<String, List<Object>> grid = new LinkedHashMap<>();
+        grid.put("autoTrader19th.rateAnalizer.threshold.seconds", List.of(30, 60));
+        grid.put("autoTrader19th.order.lot.ltInitial", List.of(1, 5));
+        ParameterSweep sweep = new ParameterSweep(IMPLEMENTATION, ticks, grid);
+        sweep.setParallelism(2);
+        List<SweepResult> results = sweep.run();
+
+        Assertions.assertEquals(4, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            Assertions.assertTrue(results.get(i - 1).getResult().getFinalMargin() >= results.get(i).getResult().getFinalMargin());
+        }
+        // 並列実行しても、同じ設定値で単独実行した場合と同じ結果となる
+        for (SweepResult result : results) {
+            Map<String, Object> previous = AutoTradeProperties.override(result.getOverrides());
+            try {
+                BacktestResult expected = new Backtest(IMPLEMENTATION, ticks).run();
+                Assertions.assertEquals(expected.getFinalMargin(), result.getResult().getFinalMargin());
+                Assertions.assertEquals(expected.getFixCount(), result.getResult().getFixCount());
+            } finally {
+                AutoTradeProperties.restore(previous);
+            }
+            // 取引が行われていない組み合わせ同士の比較にしない
+            Assertions.assertFalse(result.getResult().getFills().isEmpty());
+        }
+    }
+
+    @Test
+    public void classInit() {
+        // クラスの初期化時に読む設定値は組み合わせごとに変えられない
+        Map<String, List<Object>> grid = new LinkedHashMap<>();
+        grid.put("autoTraderEleventh.order.direction.duration.seconds.short", List.of(30, 60));
+        TickData ticks = TickData.of(TestRates.randomWalk(2, LocalDateTime.of(2024, 1, 10, 10, 0), 10));
+        Assertions.assertThrows(ApplicationException.class,
+                () -> new ParameterSweep("autotrade.local.autotrader.impl.AutoTraderEleventh", ticks, grid));
+    }
+
+    @Test
+    public void released() throws InterruptedException {
+        // 同じJVMで繰り返し実行しても、実行済みのAutoTraderは保持されない
+        TickData ticks = TickData.of(TestRates.randomWalk(2, LocalDateTime.of(2024, 1, 10, 10, 0), 60 * 5));
+        Backtest backtest = new Backtest(IMPLEMENTATION, ticks);
+        List<WeakReference<AutoTrader>> traders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            traders.add(runOnce(backtest));
+        }
+        for (int i = 0; i < 50 && traders.stream().anyMatch(trader -> trader.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(0, traders.stream().filter(trader -> trader.get() != null).count());
+    }
+
+    private WeakReference<AutoTrader> runOnce(Backtest backtest) {
+        AutoTrader trader = Backtest.newTrader(IMPLEMENTATION);
+        backtest.run(trader);
+        return new WeakReference<>(trader);
+    }
+}
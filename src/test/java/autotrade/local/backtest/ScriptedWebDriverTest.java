@@ -0,0 +1,68 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.autotrader.AutoTrader;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.utility.AutoTradeUtils;
+import autotrade.local.utility.SnapshotField;
+import autotrade.local.utility.TickClock;
+import autotrade.local.utility.WebDriverWrapper;
+
+public class ScriptedWebDriverTest {
+
+    @Test
+    public void wrapper() {
+        SimulatedBroker broker = new SimulatedBroker(1_000_000);
+        broker.update(CurrencyPair.USDJPY, 150003, 150000, 0);
+        WebDriverWrapper wrapper = new ScriptedWebDriverWrapper(new ScriptedWebDriver(broker));
+
+        Map<SnapshotField, String> fields = wrapper.readSnapshotFields();
+        Assertions.assertEquals("USD/JPY", fields.get(SnapshotField.PAIR));
+        Assertions.assertEquals("150.003", fields.get(SnapshotField.ASK));
+        Assertions.assertEquals(150000, AutoTradeUtils.toInt(wrapper.getBidRate()));
+        Assertions.assertEquals(1_000_000, AutoTradeUtils.toInt(fields.get(SnapshotField.MARGIN)));
+        Assertions.assertEquals("0", fields.get(SnapshotField.ASK_LOT));
+
+        wrapper.setLot(3);
+        wrapper.orderAsk();
+        Assertions.assertEquals("3", wrapper.getAskLot());
+        Assertions.assertEquals(150003, AutoTradeUtils.toInt(wrapper.getAskAverageRate()));
+        wrapper.setLot(12);
+        Assertions.assertEquals(12, broker.getLot());
+
+        broker.update(CurrencyPair.EURUSD, 110004, 110000, 0);
+        wrapper.changePair(CurrencyPair.EURUSD.getDescription());
+        Assertions.assertEquals("1.10004", ScriptedWebDriver.formatRate(CurrencyPair.EURUSD, 110004));
+        Assertions.assertEquals(110004, AutoTradeUtils.toInt(wrapper.getAskRate()));
+        Assertions.assertEquals(2, wrapper.readRateList().size());
+    }
+
+    @Test
+    public void operateTick() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 10, 10, 0);
+        SimulatedBroker broker = new SimulatedBroker(1_000_000);
+        broker.update(CurrencyPair.USDJPY, 150003, 150000, AutoTradeUtils.toEpochMilli(start));
+        broker.update(CurrencyPair.EURUSD, 110004, 110000, AutoTradeUtils.toEpochMilli(start));
+        AutoTradeUtils.offline();
+        AutoTrader trader = Backtest.newTrader("autotrade.local.autotrader.impl.AutoTrader19th");
+        trader.simulate(() -> new ScriptedWebDriver(broker), ScriptedWebDriverWrapper::new, start);
+        TickClock clock = trader.getClock();
+        trader.open();
+
+        int bid = 150000;
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime timestamp = clock.now().plusNanos(200_000_000);
+            bid += i % 7 - 3 + (i / 500 % 2 == 0 ? 1 : -1);
+            broker.update(CurrencyPair.USDJPY, bid + 3, bid, AutoTradeUtils.toEpochMilli(timestamp));
+            clock.set(timestamp);
+            trader.operateTick();
+        }
+        trader.close();
+        Assertions.assertEquals(2000 + 1, clock.getTickCount());
+    }
+}
@@ -0,0 +1,117 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.OrderType;
+
+public class SimulatedBrokerTest {
+
+    @Test
+    public void orderAndFix() {
+        SimulatedBroker broker = new SimulatedBroker(1_000_000);
+        broker.update(CurrencyPair.USDJPY, 150003, 150000, 0);
+
+        broker.setLot(2);
+        broker.orderAsk();
+        broker.update(CurrencyPair.USDJPY, 150013, 150010, 1000);
+        broker.setLot(1);
+        broker.orderAsk();
+        Assertions.assertEquals(3, broker.getAskLot());
+        Assertions.assertEquals(150006, broker.getAskAverageRate());
+        // (150010 * 3 - (150003 * 2 + 150013)) * 10
+        Assertions.assertEquals(1_000_000 + 110, broker.getEffectiveMargin());
+
+        broker.setLot(3);
+        broker.orderBid();
+        broker.update(CurrencyPair.USDJPY, 150023, 150020, 2000);
+        broker.fixAsk();
+        Assertions.assertEquals(0, broker.getAskLot());
+        Assertions.assertEquals(1_000_000 + 410, broker.getMargin());
+        // 売り3Lotの評価損 (150010 - 150023) * 3 * 10
+        Assertions.assertEquals(1_000_000 + 410 - 390, broker.getEffectiveMargin());
+
+        broker.fixAll();
+        Assertions.assertEquals(0, broker.getBidLot());
+        Assertions.assertEquals(broker.getMargin(), broker.getEffectiveMargin());
+        Assertions.assertEquals(OrderType.FIX_ALL, broker.getFills().get(broker.getFills().size() - 1).getOrderType());
+        Assertions.assertEquals(broker.getMargin() - 1_000_000,
+                broker.getFills().stream().mapToLong(Fill::getProfit).sum());
+    }
+
+    @Test
+    public void pairs() {
+        SimulatedBroker broker = new SimulatedBroker(1_000_000);
+        broker.update(CurrencyPair.USDJPY, 150003, 150000, 0);
+        broker.update(CurrencyPair.EURUSD, 110004, 110000, 0);
+        broker.setLot(1);
+        broker.orderBid();
+        broker.changePair(CurrencyPair.EURUSD);
+        Assertions.assertEquals(0, broker.getBidLot());
+        broker.update(CurrencyPair.USDJPY, 149993, 149990, 1000);
+        // 選択していない通貨ペアのポジションも有効証拠金に含める
+        Assertions.assertEquals(1_000_000 + 70, broker.getEffectiveMargin());
+        Assertions.assertFalse(broker.hasRate(CurrencyPair.GBPJPY));
+        broker.changePair(CurrencyPair.GBPJPY);
+        Assertions.assertThrows(RuntimeException.class, broker::orderAsk);
+    }
+
+    @Test
+    public void latencyAndSlippage() {
+        ExecutionModel executionModel = ExecutionModel.builder()
+                .latency(Duration.ofMillis(300))
+                .slippageProbability(1)
+                .maxSlippage(1)
+                .build();
+        SimulatedBroker broker = new SimulatedBroker(1_000_000, executionModel);
+        AtomicLong now = new AtomicLong();
+        broker.setClock(now::get);
+        broker.update(CurrencyPair.USDJPY, 150003, 150000, 0);
+        broker.setLot(1);
+        broker.orderAsk();
+        Assertions.assertEquals(0, broker.getAskLot());
+        Assertions.assertEquals(1, broker.getPendingCount());
+
+        // Rateを受け取らなくても、時刻が進めば約定する
+        broker.update(CurrencyPair.USDJPY, 150013, 150010, 100);
+        now.set(300);
+        Assertions.assertEquals(1, broker.getAskLot());
+        Fill fill = broker.getFills().get(0);
+        Assertions.assertEquals(150014, fill.getRate());
+        Assertions.assertEquals(1, fill.getSlippage());
+        Assertions.assertEquals(300, fill.getLatencyMillis());
+
+        // 決済は約定時点のポジションをすべて決済する
+        broker.orderAsk();
+        broker.fixAsk();
+        now.set(600);
+        Assertions.assertEquals(0, broker.getAskLot());
+        Assertions.assertEquals(OrderType.FIX_ASK, broker.getFills().get(2).getOrderType());
+        Assertions.assertEquals(2, broker.getFills().get(2).getLot());
+    }
+
+    @Test
+    public void margin() {
+        int requirement = CurrencyPair.USDJPY.getMarginRequirement();
+        // スプレッド分の評価損を見込んで少しだけ余裕を持たせる
+        SimulatedBroker broker = new SimulatedBroker(requirement * 3L + 1000);
+        broker.update(CurrencyPair.USDJPY, 150003, 150000, 0);
+        broker.setLot(3);
+        broker.orderAsk();
+        // 両建ての必要証拠金は多い方のみ
+        broker.orderBid();
+        Assertions.assertEquals(3, broker.getAskLot());
+        Assertions.assertEquals(3, broker.getBidLot());
+        Assertions.assertEquals(requirement * 3L, broker.getRequiredMargin());
+
+        broker.setLot(1);
+        broker.orderAsk();
+        Assertions.assertEquals(3, broker.getAskLot());
+        Assertions.assertEquals(1, broker.getRejectedCount());
+        Assertions.assertEquals(CurrencyPair.USDJPY.getLimitLot((int) broker.getEffectiveMargin()), broker.getLimitLot());
+    }
+}
@@ -0,0 +1,43 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.utility.AutoTradeUtils;
+
+public class StrategyComparisonTest {
+
+    @BeforeAll
+    public static void offline() {
+        AutoTradeUtils.offline();
+    }
+
+    @Test
+    public void run() {
+        TickData ticks = new TickGenerator(1)
+                .add(TickModel.builder().pair(CurrencyPair.USDJPY).initialBid(150000).build())
+                .add(TickModel.builder().pair(CurrencyPair.EURUSD).initialBid(110000).build())
+                .generate(LocalDateTime.of(2024, 1, 10, 10, 0), Duration.ofHours(1));
+        StrategyComparison comparison = new StrategyComparison(List.of(
+                "autotrade.local.autotrader.impl.AutoTrader19th",
+                "autotrade.local.autotrader.impl.AutoTrader16th",
+                // 存在しない実装は結果から除く
+                "autotrade.local.autotrader.impl.AutoTraderNone"), ticks);
+        List<BacktestResult> results = comparison.run();
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(1, comparison.getFailures().size());
+        Assertions.assertTrue(results.get(0).getProfit() >= results.get(1).getProfit());
+        for (BacktestResult result : results) {
+            Assertions.assertEquals(ticks.size(), result.getTickCount());
+            Assertions.assertTrue(result.getStepCount() > 0);
+        }
+        System.out.println(StrategyComparison.toTable(results));
+    }
+}
@@ -0,0 +1,42 @@
+package autotrade.local.backtest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+
+/**
+ * バックテストのテストで再生するRate
+ */
+class TestRates {
+
+    private TestRates() {
+    }
+
+    /**
+     * 200ms間隔でUSDJPYとEURUSDを交互に動かす
+     * スプレッドは設定値の最小スプレッドとし、スプレッド拡大として注文が止まらないようにする
+     */
+    static List<Rate> randomWalk(long seed, LocalDateTime start, int count) {
+        Random random = new Random(seed);
+        List<Rate> rates = new ArrayList<>();
+        int usdJpy = 150000;
+        int eurUsd = 110000;
+        int usdJpySpread = CurrencyPair.USDJPY.getMinSpread();
+        int eurUsdSpread = CurrencyPair.EURUSD.getMinSpread();
+        for (int i = 0; i < count; i++) {
+            LocalDateTime timestamp = start.plusNanos(200_000_000L * i);
+            if (i % 2 == 0) {
+                usdJpy += random.nextInt(7) - 3;
+                rates.add(Rate.builder().pair(CurrencyPair.USDJPY).ask(usdJpy + usdJpySpread).bid(usdJpy).timestamp(timestamp).build());
+            } else {
+                eurUsd += random.nextInt(7) - 3;
+                rates.add(Rate.builder().pair(CurrencyPair.EURUSD).ask(eurUsd + eurUsdSpread).bid(eurUsd).timestamp(timestamp).build());
+            }
+        }
+        return rates;
+    }
+}
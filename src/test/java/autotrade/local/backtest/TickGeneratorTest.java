@@ -0,0 +1,91 @@
+package autotrade.local.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.actor.RateAnalyzer;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.TickClock;
+
+public class TickGeneratorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 10, 10, 0);
+
+    @Test
+    public void deterministic() {
+        TickData first = generator(1).generate(START, Duration.ofMinutes(10));
+        TickData second = generator(1).generate(START, Duration.ofMinutes(10));
+        TickData other = generator(2).generate(START, Duration.ofMinutes(10));
+        Assertions.assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            Assertions.assertEquals(first.getRate(i), second.getRate(i));
+        }
+        Assertions.assertNotEquals(first.size(), other.size());
+    }
+
+    @Test
+    public void spreadAndRate() {
+        LocalDateTime indicator = START.plusMinutes(5);
+        TickData ticks = generator(1).addIndicator(indicator).generate(START, Duration.ofMinutes(10));
+        // 2通貨ペア、5ticks/s、10分
+        Assertions.assertEquals(2 * 5 * 600, ticks.size(), 300);
+        int widen = 0;
+        for (int i = 0; i < ticks.size(); i++) {
+            Rate rate = ticks.getRate(i);
+            Assertions.assertTrue(rate.getSpread() >= rate.getPair().getMinSpread());
+            if (rate.isSpreadWiden()) {
+                widen++;
+                Assertions.assertFalse(rate.getTimestamp().isBefore(indicator.minusSeconds(30)));
+                Assertions.assertFalse(rate.getTimestamp().isAfter(indicator.plusMinutes(2)));
+            }
+        }
+        Assertions.assertTrue(widen > 0);
+    }
+
+    @Test
+    public void doubtful() {
+        TickGenerator generator = new TickGenerator(3)
+                .add(TickModel.builder()
+                        .pair(CurrencyPair.USDJPY)
+                        .process(TickModel.Process.GEOMETRIC_BROWNIAN_MOTION)
+                        .initialBid(150000)
+                        // 本番の100倍
+                        .ticksPerSecond(500)
+                        .regimeMagnification(4)
+                        .regimeDuration(Duration.ofMinutes(1))
+                        .freezeInterval(Duration.ofMinutes(3))
+                        .freezeDuration(Duration.ofSeconds(5))
+                        .glitchProbability(0.0001)
+                        .build())
+                .addIndicator(START.plusMinutes(4));
+        TickData ticks = generator.generate(START, Duration.ofMinutes(10));
+
+        TickClock clock = TickClock.fixed(START);
+        RateAnalyzer analyzer = new RateAnalyzer(clock);
+        int doubtful = 0;
+        int doubtfulRates = 0;
+        for (int i = 0; i < ticks.size(); i++) {
+            Rate rate = ticks.getRate(i);
+            clock.set(rate.getTimestamp());
+            analyzer.add(rate);
+            if (i > 0 && analyzer.isDoubtful()) {
+                doubtful++;
+            }
+            if (analyzer.hasDoubtfulRates()) {
+                doubtfulRates++;
+            }
+        }
+        Assertions.assertTrue(doubtful > 0);
+        Assertions.assertTrue(doubtfulRates > 0);
+    }
+
+    private TickGenerator generator(long seed) {
+        return new TickGenerator(seed)
+                .add(TickModel.builder().pair(CurrencyPair.USDJPY).initialBid(150000).build())
+                .add(TickModel.builder().pair(CurrencyPair.EURUSD).initialBid(110000).build());
+    }
+}
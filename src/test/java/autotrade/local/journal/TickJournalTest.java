@@ -0,0 +1,85 @@
+package autotrade.local.journal;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.AutoTradeUtils;
+
+public class TickJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void appendAndRead() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 10, 9, 0, 0, 123_000_000);
+        TickJournal journal = new TickJournal(directory);
+        journal.append(Rate.builder().pair(CurrencyPair.USDJPY).ask(150123).bid(150120).timestamp(timestamp).build());
+
+        Path path = TickJournal.path(directory, CurrencyPair.USDJPY, LocalDate.of(2024, 1, 10));
+        try (TickJournalReader reader = new TickJournalReader(path)) {
+            Assertions.assertEquals(CurrencyPair.USDJPY, reader.getPair());
+            Assertions.assertEquals(LocalDate.of(2024, 1, 10), reader.getDate());
+            Assertions.assertEquals(1, reader.size());
+            Assertions.assertEquals(AutoTradeUtils.toEpochMilli(timestamp), reader.epochMillis(0));
+            Assertions.assertEquals(timestamp, reader.getRate(0).getTimestamp());
+
+            // 書き込み中のファイルを読み直す
+            journal.append(Rate.builder().pair(CurrencyPair.USDJPY).ask(150125).bid(150122).timestamp(timestamp.plusSeconds(1)).build());
+            Assertions.assertEquals(2, reader.refresh());
+            Assertions.assertEquals(150125, reader.ask(1));
+            Assertions.assertEquals(150122, reader.bid(1));
+        }
+        journal.close();
+
+        // 再度開いた場合は続きから追記する
+        journal = new TickJournal(directory);
+        journal.append(Rate.builder().pair(CurrencyPair.USDJPY).ask(150130).bid(150127).timestamp(timestamp.plusSeconds(2)).build());
+        journal.close();
+        try (TickJournalReader reader = new TickJournalReader(path)) {
+            Assertions.assertEquals(3, reader.size());
+            Assertions.assertEquals(150130, reader.ask(2));
+        }
+    }
+
+    @Test
+    public void roll() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 10, 23, 59, 59);
+        TickJournal journal = new TickJournal(directory);
+        journal.append(Rate.builder().pair(CurrencyPair.EURUSD).ask(110003).bid(110000).timestamp(timestamp).build());
+        journal.append(Rate.builder().pair(CurrencyPair.EURUSD).ask(110005).bid(110002).timestamp(timestamp.plusSeconds(1)).build());
+        journal.close();
+
+        List<Path> paths = TickJournalReader.list(directory, CurrencyPair.EURUSD);
+        Assertions.assertEquals(2, paths.size());
+        try (TickJournalReader reader = new TickJournalReader(paths.get(1))) {
+            Assertions.assertEquals(LocalDate.of(2024, 1, 11), reader.getDate());
+            Assertions.assertEquals(1, reader.size());
+            Assertions.assertEquals(110005, reader.ask(0));
+        }
+        Assertions.assertTrue(TickJournalReader.list(directory, CurrencyPair.GBPJPY).isEmpty());
+    }
+
+    @Test
+    public void grow() {
+        long epochMillis = AutoTradeUtils.toEpochMilli(LocalDateTime.of(2024, 1, 10, 9, 0));
+        TickJournal journal = new TickJournal(directory);
+        int count = (1 << 18) + 10;
+        for (int i = 0; i < count; i++) {
+            journal.append(CurrencyPair.USDJPY, epochMillis + i, 150000 + i, 149997 + i);
+        }
+        journal.close();
+        try (TickJournalReader reader = new TickJournalReader(TickJournal.path(directory, CurrencyPair.USDJPY, LocalDate.of(2024, 1, 10)))) {
+            Assertions.assertEquals(count, reader.size());
+            Assertions.assertEquals(150000 + count - 1, reader.ask(count - 1));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package autotrade.local.marketdata;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import autotrade.local.marketdata.impl.SocketMarketDataSource;
+import autotrade.local.material.CurrencyPair;
+import autotrade.local.material.Rate;
+import autotrade.local.utility.AutoTradeUtils;
+
+public class SocketMarketDataSourceTest {
+
+    @Test
+    public void receive() throws IOException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            // 価格配信の代わりに固定の行を送信する
+            Thread feeder = new Thread(() -> {
+                try (Socket client = server.accept();
+                        PrintWriter writer = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                    writer.println("USDJPY,150.123,150.120,1700000000000");
+                    writer.println("broken line");
+                    writer.println("EURUSD,1.10003,1.10000");
+                    writer.println("USDJPY,150.125,150.122,1700000000100");
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            feeder.start();
+
+            MarketDataSource source = new SocketMarketDataSource("localhost", server.getLocalPort());
+            source.start();
+            List<Rate> rates = new ArrayList<>();
+            long started = System.currentTimeMillis();
+            while (rates.size() < 3 && System.currentTimeMillis() - started < 5000) {
+                rates.addAll(source.poll());
+                AutoTradeUtils.sleep(Duration.ofMillis(10));
+            }
+            source.close();
+
+            Assertions.assertEquals(3, rates.size());
+            Assertions.assertEquals(CurrencyPair.USDJPY, rates.get(0).getPair());
+            Assertions.assertEquals(150123, rates.get(0).getAsk());
+            Assertions.assertEquals(150120, rates.get(0).getBid());
+            Assertions.assertEquals(AutoTradeUtils.toLocalDateTime(1700000000000L), rates.get(0).getTimestamp());
+            Assertions.assertEquals(CurrencyPair.EURUSD, rates.get(1).getPair());
+            Assertions.assertEquals(150125, source.getLatest(CurrencyPair.USDJPY).getAsk());
+            Assertions.assertNull(source.getLatest(CurrencyPair.GBPJPY));
+        }
+    }
+
+    @Test
+    public void bounded() throws IOException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread feeder = new Thread(() -> {
+                try (Socket client = server.accept();
+                        PrintWriter writer = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                    for (int i = 0; i < 10; i++) {
+                        writer.println("USDJPY,150.1" + (10 + i) + ",150.100," + (1700000000000L + i));
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            feeder.start();
+
+            SocketMarketDataSource source = new SocketMarketDataSource("localhost", server.getLocalPort(), 4);
+            source.start();
+            // 取り出さずに全件受信するまで待つ
+            long started = System.currentTimeMillis();
+            while (!isLatest(source, 150119) && System.currentTimeMillis() - started < 5000) {
+                AutoTradeUtils.sleep(Duration.ofMillis(10));
+            }
+            List<Rate> rates = source.poll();
+            source.close();
+
+            // 古いものから破棄し、新しい4件を残す
+            Assertions.assertEquals(6, source.getDroppedCount());
+            Assertions.assertEquals(4, rates.size());
+            Assertions.assertEquals(150116, rates.get(0).getAsk());
+            Assertions.assertEquals(150119, rates.get(3).getAsk());
+            Assertions.assertEquals(150119, source.getLatest(CurrencyPair.USDJPY).getAsk());
+        }
+    }
+
+    private static boolean isLatest(MarketDataSource source, int ask) {
+        Rate latest = source.getLatest(CurrencyPair.USDJPY);
+        return latest != null && latest.getAsk() == ask;
+    }
+}
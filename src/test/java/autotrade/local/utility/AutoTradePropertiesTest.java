@@ -1,5 +1,9 @@
 package autotrade.local.utility;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class AutoTradePropertiesTest {
@@ -13,4 +17,19 @@ public class AutoTradePropertiesTest {
         System.out.println(AutoTradeProperties.getMap("autotrade.lot.marginRequirement").get("USDJPY").toString());
     }
 
+    @Test
+    public void override() {
+        String key = "autotrade.implementation";
+        String original = AutoTradeProperties.get(key);
+        Map<String, Object> previous = AutoTradeProperties.override(Map.of(key, "XXXYYY"));
+        try {
+            Assertions.assertEquals("XXXYYY", AutoTradeProperties.get(key));
+            // 他のスレッドには影響しない
+            Assertions.assertEquals(original, CompletableFuture.supplyAsync(() -> AutoTradeProperties.get(key)).join());
+        } finally {
+            AutoTradeProperties.restore(previous);
+        }
+        Assertions.assertEquals(original, AutoTradeProperties.get(key));
+    }
+
 }
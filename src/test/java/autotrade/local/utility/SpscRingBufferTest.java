@@ -0,0 +1,56 @@
+package autotrade.local.utility;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SpscRingBufferTest {
+
+    @Test
+    public void full() {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(3);
+        Assertions.assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+        Assertions.assertEquals(0, buffer.poll());
+        Assertions.assertTrue(buffer.offer(4));
+        Assertions.assertEquals(4, buffer.size());
+        for (int i = 1; i <= 4; i++) {
+            Assertions.assertEquals(i, buffer.poll());
+        }
+        Assertions.assertNull(buffer.poll());
+    }
+
+    @Test
+    public void order() {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(16);
+        int total = 5000;
+        // 1CPUの環境でも相手のスレッドが進むよう、待機中はyieldする
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < total; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producer.setDaemon(true);
+            producer.start();
+            // 別スレッドから追加した順に取り出せる
+            int expected = 0;
+            while (expected < total) {
+                Integer value = buffer.poll();
+                if (value == null) {
+                    Thread.yield();
+                    continue;
+                }
+                Assertions.assertEquals(expected++, value);
+            }
+            producer.join();
+            Assertions.assertNull(buffer.poll());
+        });
+    }
+}